@@ -0,0 +1,45 @@
+package com.example.quizsystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Streamed exports write to slow clients for as long as a download takes, so they get a
+// pool of their own; once it and its queue are full, further exports are rejected.
+// The pool is not a bean: any Executor bean makes Boot drop its applicationTaskExecutor.
+@Configuration
+public class AsyncStreamingConfig implements WebMvcConfigurer {
+
+    @Value("${app.streaming.threads:8}")
+    private int threads;
+
+    @Value("${app.streaming.queueCapacity:100}")
+    private int queueCapacity;
+
+    private final ThreadPoolTaskExecutor streamingExecutor = new ThreadPoolTaskExecutor();
+
+    @PostConstruct
+    public void startStreamingExecutor() {
+        streamingExecutor.setCorePoolSize(threads);
+        streamingExecutor.setMaxPoolSize(threads);
+        streamingExecutor.setQueueCapacity(queueCapacity);
+        streamingExecutor.setThreadNamePrefix("mvc-stream-");
+        streamingExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        streamingExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stopStreamingExecutor() {
+        streamingExecutor.shutdown();
+    }
+
+    // Timeouts are set per streamed response by JsonStreamResponder, not here
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.quizsystem.config;
+
+import com.example.quizsystem.model.QuizAttempt;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Backfills expiresAt on attempts written before it existed and drops the old stored timeRemaining
+@Component
+public class AttemptDeadlineMigration {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptDeadlineMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        AggregationUpdate setDeadline = AggregationUpdate.update()
+                .set("expiresAt").toValue(ArithmeticOperators.valueOf("startedAt")
+                        .add(ArithmeticOperators.valueOf("timeLimit").multiplyBy(1000)));
+        long backfilled = mongoTemplate.updateMulti(
+                query(where("expiresAt").exists(false).and("timeLimit").ne(null).and("startedAt").ne(null)),
+                setDeadline,
+                QuizAttempt.class).getModifiedCount();
+
+        long cleaned = mongoTemplate.updateMulti(
+                query(where("timeRemaining").exists(true)),
+                new Update().unset("timeRemaining"),
+                QuizAttempt.class).getModifiedCount();
+
+        if (backfilled > 0 || cleaned > 0) {
+            logger.info("Attempt deadline migration: {} deadlines backfilled, {} stored timers removed",
+                    backfilled, cleaned);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.quizsystem.config;
+
+import com.example.quizsystem.model.Quiz;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.model.TokenRevocation;
+import com.example.quizsystem.model.User;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Verifies at startup that every index the repositories rely on exists,
+ * logging the ones that are missing and creating them unless
+ * app.mongo.createIndexes is turned off. Annotation-declared indexes are
+ * resolved from the mapping metadata; partial indexes, which annotations
+ * cannot express, are declared here. An index only counts as present when
+ * its keys, uniqueness and partial filter all match, and startup fails if a
+ * missing unique index cannot be created, since the code relies on it.
+ */
+@Component
+public class MongoIndexBootstrap {
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexBootstrap.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Value("${app.mongo.createIndexes:true}")
+    private boolean createIndexes;
+
+    @PostConstruct
+    public void verifyIndexes() {
+        Map<Class<?>, List<IndexDefinition>> required = new LinkedHashMap<>();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> type : List.of(User.class, Quiz.class, QuizAttempt.class, TokenRevocation.class)) {
+            List<IndexDefinition> indexes = new ArrayList<>();
+            resolver.resolveIndexFor(type).forEach(indexes::add);
+            required.put(type, indexes);
+        }
+
+        // At most one active attempt per user and quiz
+        required.get(QuizAttempt.class).add(new Index()
+                .named("one_active_attempt")
+                .on("userId", Sort.Direction.ASC)
+                .on("quizId", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(where("isActive").is(true))));
+        // Startup reload of active attempt deadlines
+        required.get(QuizAttempt.class).add(new Index()
+                .named("active_deadline")
+                .on("expiresAt", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(where("isActive").is(true))));
+
+        int missing = 0;
+        for (Map.Entry<Class<?>, List<IndexDefinition>> entry : required.entrySet()) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entry.getKey());
+            Set<String> existing = indexOps.getIndexInfo().stream()
+                    .map(MongoIndexBootstrap::signature)
+                    .collect(Collectors.toSet());
+
+            for (IndexDefinition index : entry.getValue()) {
+                String signature = signature(index);
+                if (existing.contains(signature)) {
+                    continue;
+                }
+                missing++;
+                String collection = mongoTemplate.getCollectionName(entry.getKey());
+                if (!createIndexes) {
+                    logger.warn("Missing index {} on {}", signature, collection);
+                    continue;
+                }
+                try {
+                    indexOps.ensureIndex(index);
+                    logger.info("Created missing index {} on {}", signature, collection);
+                } catch (RuntimeException e) {
+                    if (Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+                        throw new IllegalStateException("Could not create unique index " + signature + " on " + collection, e);
+                    }
+                    logger.error("Could not create index {} on {}: {}", signature, collection, e.getMessage());
+                }
+            }
+        }
+        if (missing == 0) {
+            logger.info("All required Mongo indexes are present");
+        }
+    }
+
+    private static String signature(IndexInfo info) {
+        String filter = info.getPartialFilterExpression();
+        return signature(keySignature(info.getIndexFields()), info.isUnique(),
+                filter == null ? null : Document.parse(filter));
+    }
+
+    private static String signature(IndexDefinition index) {
+        Document options = index.getIndexOptions();
+        Object filter = options.get("partialFilterExpression");
+        return signature(keySignature(index.getIndexKeys()), Boolean.TRUE.equals(options.get("unique")),
+                filter instanceof Document ? (Document) filter : null);
+    }
+
+    private static String signature(String keys, boolean unique, Document partialFilter) {
+        return keys + (unique ? " unique" : "") + (partialFilter == null ? "" : " where " + partialFilter.toJson());
+    }
+
+    private static String keySignature(Document keys) {
+        return keys.entrySet().stream()
+                .map(key -> key.getKey() + ":" + key.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static String keySignature(List<IndexField> fields) {
+        return fields.stream()
+                .map(field -> field.getKey() + ":" + (field.getDirection() == Sort.Direction.DESC ? -1 : 1))
+                .collect(Collectors.joining(","));
+    }
+}
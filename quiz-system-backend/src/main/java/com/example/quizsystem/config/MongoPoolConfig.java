@@ -0,0 +1,27 @@
+package com.example.quizsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// With virtual threads the request count is no longer capped by Tomcat's pool, so the
+// connection pool becomes the limit on concurrent Mongo calls and needs to be sized explicitly
+@Configuration
+public class MongoPoolConfig {
+
+    @Value("${app.mongo.maxPoolSize:100}")
+    private int maxPoolSize;
+
+    @Value("${app.mongo.maxWaitTimeMs:10000}")
+    private long maxWaitTimeMs;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer() {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(maxWaitTimeMs, TimeUnit.MILLISECONDS));
+    }
+}
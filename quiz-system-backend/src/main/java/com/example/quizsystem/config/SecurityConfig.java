@@ -2,18 +2,24 @@ package com.example.quizsystem.config;
 
 import com.example.quizsystem.security.JwtAuthenticationEntryPoint;
 import com.example.quizsystem.security.JwtAuthenticationFilter;
+import com.example.quizsystem.security.PasswordHashingExecutor;
+import com.example.quizsystem.security.PooledPasswordEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -22,6 +28,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -37,9 +45,19 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    // New hashes use app.passwordEncoder.id; older ones (including unprefixed BCrypt
+    // hashes from before the delegating encoder) still match and are rehashed on login.
+    // Hashing and verification run on the bounded hashing pool
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10); // Using strength 10
+    public PasswordEncoder passwordEncoder(@Value("${app.passwordEncoder.id:bcrypt}") String encoderId,
+                                           @Value("${app.passwordEncoder.bcryptStrength:10}") int bcryptStrength,
+                                           PasswordHashingExecutor passwordHashingExecutor) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new PooledPasswordEncoder(passwordEncoder, passwordHashingExecutor);
     }
 
     @Bean
@@ -73,6 +91,7 @@ public class SecurityConfig {
                             .requestMatchers("/error").permitAll() // Allow error endpoint
                             .requestMatchers("/api/auth/signin").permitAll() // Explicitly permit signin
                             .requestMatchers("/api/auth/signup").permitAll() // Explicitly permit signup
+                            .requestMatchers(HttpMethod.POST, "/api/users/import").hasRole("ADMIN")
                             .anyRequest().authenticated();
                     logger.info("Request authorization rules configured");
                 })
@@ -100,7 +119,8 @@ public class SecurityConfig {
                 "Accept",
                 "Origin",
                 "Cache-Control",
-                "X-Requested-With"
+                "X-Requested-With",
+                "Idempotency-Key"
         ));
         configuration.setExposedHeaders(Collections.singletonList("Authorization"));
         configuration.setAllowCredentials(true);
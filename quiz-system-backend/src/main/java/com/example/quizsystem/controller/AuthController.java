@@ -3,6 +3,8 @@ package com.example.quizsystem.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,8 +17,10 @@ import com.example.quizsystem.payload.LoginRequest;
 import com.example.quizsystem.payload.SignUpRequest;
 import com.example.quizsystem.repository.UserRepository;
 import com.example.quizsystem.security.JwtTokenProvider;
+import com.example.quizsystem.security.UserPrincipal;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -40,19 +44,15 @@ public class AuthController {
         try {
             logger.info("Login attempt with username: {}", loginRequest.getUsername());
 
-            // First check if user exists
-            User user = userRepository.findByUsername(loginRequest.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            logger.info("User found in database: {}", user.getUsername());
-
-            // Authenticate user
+            // Authenticate user; the provider's lookup is the only user read, and the
+            // password encoder runs the check itself on the bounded hashing pool
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getUsername(),
                             loginRequest.getPassword()
                     )
             );
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
 
             logger.info("Authentication successful for user: {}", loginRequest.getUsername());
 
@@ -68,6 +68,10 @@ public class AuthController {
             ));
 
         } catch (Exception e) {
+            if (isHashingSaturated(e)) {
+                logger.warn("Sign-in rejected, password hashing is saturated: {}", e.getMessage());
+                return tooBusy();
+            }
             logger.error("Authentication failed for user: {}", loginRequest.getUsername(), e);
             return ResponseEntity.badRequest().body(Map.of(
                     "message", "Invalid Username or Password"
@@ -100,7 +104,7 @@ public class AuthController {
             User user = new User(
                     signUpRequest.getUsername(),
                     signUpRequest.getEmail(),
-                    passwordEncoder.encode(signUpRequest.getPassword()) // Encrypt password
+                    passwordEncoder.encode(signUpRequest.getPassword())
             );
 
             // Save user
@@ -110,6 +114,9 @@ public class AuthController {
             return ResponseEntity.ok(Map.of(
                     "message", "User registered successfully"
             ));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Registration rejected, password hashing is saturated: {}", e.getMessage());
+            return tooBusy();
         } catch (Exception e) {
             logger.error("Registration failed for user: {}", signUpRequest.getUsername(), e);
             return ResponseEntity.badRequest().body(Map.of(
@@ -117,4 +124,20 @@ public class AuthController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    // The provider wraps failures from its timing-attack check for unknown users
+    private static boolean isHashingSaturated(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> tooBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", "Too many sign-in requests, please retry shortly"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.quizsystem.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a Mongo cursor straight to the response, one document at a time,
+ * either as a JSON array or as NDJSON when the client asks for
+ * application/x-ndjson. The cursor is opened on the async thread that writes
+ * the body and closed when it is done, so nothing is held once the request ends.
+ * Only these responses get the long streaming timeout; other async requests
+ * keep the container default.
+ */
+@Component
+public class JsonStreamResponder {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.streaming.timeoutMs:600000}")
+    private long timeoutMs;
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, Supplier<Stream<T>> cursor) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream().anyMatch(NDJSON::includes);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<T> items = cursor.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                boolean first = true;
+                for (Iterator<T> it = items.iterator(); it.hasNext(); ) {
+                    writer.writeValue(generator, it.next());
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (first) {
+                        // Get the first bytes on the wire; the rest follows as the buffer fills
+                        generator.flush();
+                        first = false;
+                    }
+                }
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+        // The handler adapter has already applied the default; the body task starts after we return
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(timeoutMs);
+        }
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
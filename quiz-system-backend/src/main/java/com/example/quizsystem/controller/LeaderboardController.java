@@ -1,29 +1,75 @@
 package com.example.quizsystem.controller;
 
 import com.example.quizsystem.model.LeaderboardEntry;
-import com.example.quizsystem.service.QuizAttemptService;
+import com.example.quizsystem.service.ContentVersions;
+import com.example.quizsystem.service.LeaderboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/leaderboard")
+@Profile("!reactive")
 public class LeaderboardController {
 
     @Autowired
-    private QuizAttemptService quizAttemptService;
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ContentVersions contentVersions;
 
     @GetMapping("/global")
-    public ResponseEntity<List<LeaderboardEntry>> getGlobalLeaderboard() {
-        List<LeaderboardEntry> leaderboard = quizAttemptService.getGlobalLeaderboard();
-        return ResponseEntity.ok(leaderboard);
+    public ResponseEntity<List<LeaderboardEntry>> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.globalLeaderboardTag())) {
+            return null;
+        }
+        List<LeaderboardEntry> leaderboard = leaderboardService.getGlobalLeaderboard(offset, limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(leaderboard);
+    }
+
+    @GetMapping("/global/rank/{userId}")
+    public ResponseEntity<LeaderboardEntry> getGlobalRank(@PathVariable String userId, WebRequest request) {
+        if (request.checkNotModified(contentVersions.globalLeaderboardTag())) {
+            return null;
+        }
+        LeaderboardEntry entry = leaderboardService.getGlobalRank(userId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(entry);
     }
 
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<List<LeaderboardEntry>> getQuizLeaderboard(@PathVariable String quizId) {
-        List<LeaderboardEntry> leaderboard = quizAttemptService.getQuizLeaderboard(quizId);
-        return ResponseEntity.ok(leaderboard);
+    public ResponseEntity<List<LeaderboardEntry>> getQuizLeaderboard(
+            @PathVariable String quizId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.quizAttemptsTag(quizId, null))) {
+            return null;
+        }
+        List<LeaderboardEntry> leaderboard = leaderboardService.getQuizLeaderboard(quizId, offset, limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(leaderboard);
+    }
+
+    @GetMapping("/quiz/{quizId}/rank/{userId}")
+    public ResponseEntity<LeaderboardEntry> getQuizRank(@PathVariable String quizId, @PathVariable String userId,
+                                                        WebRequest request) {
+        if (request.checkNotModified(contentVersions.quizAttemptsTag(quizId, null))) {
+            return null;
+        }
+        LeaderboardEntry entry = leaderboardService.getQuizRank(quizId, userId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(entry);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,19 @@
 package com.example.quizsystem.controller;
 
 import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.security.UserPrincipal;
+import com.example.quizsystem.service.AttemptTimerService;
 import com.example.quizsystem.service.QuizAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,37 +27,18 @@ public class QuizAttemptController {
     @Autowired
     private QuizAttemptService quizAttemptService;
 
-//    @PostMapping("/start")
-//    public ResponseEntity<QuizAttempt> startQuizAttempt(@RequestParam String userId, @RequestParam String quizId) {
-//        QuizAttempt attempt = quizAttemptService.startQuizAttempt(userId, quizId);
-//        return ResponseEntity.ok(attempt);
-//    }
-
-    @PostMapping("/start")
-    public ResponseEntity<QuizAttempt> startQuizAttempt(@RequestBody Map<String, Object> request) {
-        try {
-            String userId = (String) request.get("userId");
-            String quizId = (String) request.get("quizId");
-            Integer timeLimit = ((Number) request.get("timeLimit")).intValue();
-
-            System.out.println("Received start quiz request:");
-            System.out.println("userId: " + userId);
-            System.out.println("quizId: " + quizId);
-            System.out.println("timeLimit: " + timeLimit);
-
-            QuizAttempt attempt = quizAttemptService.startQuizAttempt(userId, quizId, timeLimit);
-            return ResponseEntity.ok(attempt);
-        } catch (Exception e) {
-            System.err.println("Error starting quiz: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
-    }
+    @Autowired
+    private AttemptTimerService attemptTimerService;
+
+    @Autowired
+    private JsonStreamResponder jsonStreamResponder;
 
     @GetMapping("/{quizId}/user/{userId}/attempt")
     public ResponseEntity<Map<String, Object>> getUserQuizAttempt(
             @PathVariable String quizId,
-            @PathVariable String userId) {
+            @PathVariable String userId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        requireSelf(principal, userId);
 
         List<QuizAttempt> attempts = quizAttemptService.getAttemptsByUser(userId)
                 .stream()
@@ -67,58 +57,48 @@ public class QuizAttemptController {
     }
 
     @GetMapping("/status/{userId}/{quizId}")
-    public ResponseEntity<?> checkAttemptStatus(@PathVariable String userId, @PathVariable String quizId) {
+    public ResponseEntity<?> checkAttemptStatus(@PathVariable String userId, @PathVariable String quizId,
+                                                @AuthenticationPrincipal UserPrincipal principal) {
+        requireSelf(principal, userId);
         Map<String, Boolean> response = new HashMap<>();
         response.put("hasAttempted", quizAttemptService.hasAttemptedQuiz(userId, quizId));
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping("/{attemptId}/time")
-    public ResponseEntity<Integer> getRemainingTime(@PathVariable String attemptId) {
-        try {
-            Integer timeRemaining = quizAttemptService.getRemainingTime(attemptId);
-            return ResponseEntity.ok(timeRemaining);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-//    @PostMapping("/submit/{attemptId}")
-//    public ResponseEntity<QuizAttempt> submitQuizAttempt(@PathVariable String attemptId, @RequestBody Map<String, Integer> answers) {
-//        QuizAttempt attempt = quizAttemptService.submitQuizAttempt(attemptId, answers);
-//        if (attempt != null) {
-//            return ResponseEntity.ok(attempt);
-//        }
-//        return ResponseEntity.notFound().build();
-//    }
-
-    @PostMapping("/submit/{attemptId}")
-    public ResponseEntity<?> submitQuizAttempt(
-            @PathVariable String attemptId,
-            @RequestBody Map<String, Integer> answers) {
-        try {
-            QuizAttempt attempt = quizAttemptService.submitQuizAttempt(attemptId, answers);
-            return ResponseEntity.ok(attempt);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    @GetMapping(value = "/{attemptId}/time/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRemainingTime(@PathVariable String attemptId,
+                                          @AuthenticationPrincipal UserPrincipal principal) {
+        return attemptTimerService.subscribe(attemptId, principal.getId());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<QuizAttempt>> getAttemptsByUser(@PathVariable String userId) {
-        List<QuizAttempt> attempts = quizAttemptService.getAttemptsByUser(userId);
-        return ResponseEntity.ok(attempts);
+    public ResponseEntity<StreamingResponseBody> getAttemptsByUser(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        requireSelf(principal, userId);
+        return jsonStreamResponder.stream(accept, () -> quizAttemptService.streamAttemptsByUser(userId));
     }
 
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<List<QuizAttempt>> getAttemptsByQuiz(@PathVariable String quizId) {
-        List<QuizAttempt> attempts = quizAttemptService.getAttemptsByQuiz(quizId);
-        return ResponseEntity.ok(attempts);
+    public ResponseEntity<StreamingResponseBody> getAttemptsByQuiz(
+            @PathVariable String quizId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return jsonStreamResponder.stream(accept, () -> quizAttemptService.streamAttemptsByQuiz(quizId));
     }
 
     @GetMapping("/user/{userId}/details")
-    public ResponseEntity<Map<String, Object>> getUserAttemptDetails(@PathVariable String userId) {
+    public ResponseEntity<Map<String, Object>> getUserAttemptDetails(@PathVariable String userId,
+                                                                     @AuthenticationPrincipal UserPrincipal principal) {
+        requireSelf(principal, userId);
         Map<String, Object> details = quizAttemptService.getUserAttemptDetails(userId);
         return ResponseEntity.ok(details);
     }
-}
\ No newline at end of file
+
+    // The userId in these paths is only trusted when it is the caller's own
+    private static void requireSelf(UserPrincipal principal, String userId) {
+        if (!principal.getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot access another user's attempts");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.quizsystem.controller;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.security.UserPrincipal;
+import com.example.quizsystem.service.AnswerAutosaveService;
+import com.example.quizsystem.service.QuizAttemptService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+// Start, time, autosave and submit on the servlet stack; ReactiveQuizAttemptController serves them under the reactive profile
+@RestController
+@RequestMapping("/api/quiz-attempts")
+@Profile("!reactive")
+public class QuizAttemptLifecycleController {
+    private static final Logger logger = LoggerFactory.getLogger(QuizAttemptLifecycleController.class);
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private AnswerAutosaveService answerAutosaveService;
+
+    @PostMapping("/start")
+    public ResponseEntity<QuizAttempt> startQuizAttempt(@RequestBody Map<String, Object> request,
+                                                        @AuthenticationPrincipal UserPrincipal principal) {
+        String userId = principal.getId();
+        String quizId = (String) request.get("quizId");
+        Integer timeLimit = ((Number) request.get("timeLimit")).intValue();
+        logger.debug("Start quiz request: userId={}, quizId={}, timeLimit={}", userId, quizId, timeLimit);
+        try {
+            QuizAttempt attempt = quizAttemptService.startQuizAttempt(userId, quizId, timeLimit);
+            return ResponseEntity.ok(attempt);
+        } catch (RuntimeException e) {
+            logger.warn("Could not start quiz {} for user {}: {}", quizId, userId, e.getMessage());
+            throw e;
+        }
+    }
+
+    @GetMapping("/{attemptId}/time")
+    public ResponseEntity<Integer> getRemainingTime(@PathVariable String attemptId) {
+        try {
+            Integer timeRemaining = quizAttemptService.getRemainingTime(attemptId);
+            return ResponseEntity.ok(timeRemaining);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{attemptId}/answers")
+    public ResponseEntity<Void> saveAnswers(
+            @PathVariable String attemptId,
+            @RequestBody Map<String, Integer> answers,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        answerAutosaveService.saveAnswers(attemptId, principal.getId(), answers);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Correct options for the results page, once the caller's attempt is completed
+    @GetMapping("/{attemptId}/answer-key")
+    public ResponseEntity<Map<String, Integer>> getCorrectAnswers(
+            @PathVariable String attemptId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(quizAttemptService.getCorrectAnswers(attemptId, principal.getId()));
+    }
+
+    @PostMapping("/submit/{attemptId}")
+    public ResponseEntity<?> submitQuizAttempt(
+            @PathVariable String attemptId,
+            @RequestBody Map<String, Integer> answers,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            QuizAttempt attempt = quizAttemptService.submitQuizAttempt(
+                    attemptId, principal.getId(), answers, idempotencyKey);
+            return ResponseEntity.ok(attempt);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
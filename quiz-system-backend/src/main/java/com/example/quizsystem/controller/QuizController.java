@@ -1,42 +1,155 @@
 package com.example.quizsystem.controller;
 
+import com.example.quizsystem.dto.PlayableQuizDTO;
+import com.example.quizsystem.dto.QuizCatalogPageDTO;
 import com.example.quizsystem.dto.QuizStatsDTO;
 import com.example.quizsystem.model.Quiz;
 import com.example.quizsystem.dto.QuizSubmissionDTO;
 import com.example.quizsystem.model.QuizStats;
+import com.example.quizsystem.security.UserPrincipal;
+import com.example.quizsystem.service.ContentVersions;
+import com.example.quizsystem.service.PlayView;
+import com.example.quizsystem.service.QuizCatalogService;
 import com.example.quizsystem.service.QuizService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/quizzes")
 @CrossOrigin(origins = "*")  // This allows requests from any origin
 public class QuizController {
+    private static final Logger logger = LoggerFactory.getLogger(QuizController.class);
 
     private final QuizService quizService;
 
+    @Autowired
+    private QuizCatalogService quizCatalogService;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
     @Autowired
     public QuizController(QuizService quizService) {
         this.quizService = quizService;
     }
 
     @GetMapping
-    public List<Quiz> getAllQuizzes() {
-        return quizService.getAllQuizzes();
+    public ResponseEntity<QuizCatalogPageDTO> getAllQuizzes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(required = false) String direction,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.catalogTag())) {
+            return null;
+        }
+        return revalidated(quizCatalogService.getCatalog(null, null, sort, direction, cursor, limit));
     }
 
+    // Only the creator or an admin sees correct answers; everyone else gets the play view
     @GetMapping("/{id}")
-    public ResponseEntity<Quiz> getQuizById(@PathVariable String id) {
+    public ResponseEntity<?> getQuizById(@PathVariable String id, WebRequest request,
+                                         @AuthenticationPrincipal UserPrincipal principal) {
+        Quiz quiz;
+        try {
+            quiz = quizService.getQuizById(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean withAnswers = canSeeAnswers(quiz, principal);
+        LocalDateTime version = QuizService.versionOf(quiz);
+        if (request.checkNotModified(contentVersions.quizTag(version, withAnswers), ContentVersions.millis(version))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(withAnswers ? quiz : PlayableQuizDTO.from(quiz));
+    }
+
+    private static boolean canSeeAnswers(Quiz quiz, UserPrincipal principal) {
+        if (principal == null) {
+            return false;
+        }
+        return principal.getId().equals(quiz.getCreatorId())
+                || principal.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+
+    // Answer-free view for takers, served from bytes serialized once per quiz version
+    @GetMapping("/{id}/play")
+    public ResponseEntity<byte[]> getPlayableQuiz(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PlayView view;
         try {
-            Quiz quiz = quizService.getQuizById(id);
-            return ResponseEntity.ok(quiz);
+            view = quizService.getPlayView(id);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
+
+        boolean gzip = view.getGzipped() != null && acceptsGzip(acceptEncoding);
+        String etag = gzip ? view.getGzipEtag() : view.getEtag();
+        if (view.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(view.getGzipped());
+        }
+        return response.body(view.getJson());
+    }
+
+    // Honours q-values, so "gzip;q=0" refuses gzip and "*" covers it unless gzip is listed
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzipQ = q;
+            } else if (name.equals("*")) {
+                anyQ = q;
+            }
+        }
+        double effective = gzipQ != null ? gzipQ : anyQ != null ? anyQ : 0;
+        return effective > 0;
     }
 
     @PostMapping
@@ -64,41 +177,73 @@ public class QuizController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Quiz>> getQuizzesByCategory(@PathVariable String category) {
-        List<Quiz> quizzes = quizService.getQuizzesByCategory(category);
-        return ResponseEntity.ok(quizzes);
+    public ResponseEntity<QuizCatalogPageDTO> getQuizzesByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(required = false) String direction,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.catalogTag())) {
+            return null;
+        }
+        return revalidated(quizCatalogService.getCatalog(category, null, sort, direction, cursor, limit));
     }
 
     @GetMapping("/{quizId}/stats")
-    public ResponseEntity<QuizStatsDTO> getQuizStats(@PathVariable String quizId) {
+    public ResponseEntity<QuizStatsDTO> getQuizStats(
+            @PathVariable String quizId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest request) {
         try {
-            QuizStatsDTO stats = quizService.getQuizStats(quizId);
-            return ResponseEntity.ok(stats);
+            LocalDateTime version = quizService.getQuizVersion(quizId)
+                    .orElseThrow(() -> new RuntimeException("Quiz not found"));
+            if (request.checkNotModified(contentVersions.quizAttemptsTag(quizId, version))) {
+                return null;
+            }
+            QuizStatsDTO stats = quizService.getQuizStats(quizId, page, size);
+            return revalidated(stats);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping("/{id}/submit")
-    public ResponseEntity<Integer> submitQuiz(@PathVariable String id, @RequestBody QuizSubmissionDTO submission, @RequestParam String userId) {
-        System.out.println("Received submission for quiz ID: " + id);
-        System.out.println("Submission DTO: " + submission);
-        System.out.println("User ID: " + userId);
+    public ResponseEntity<Integer> submitQuiz(@PathVariable String id, @RequestBody QuizSubmissionDTO submission,
+                                              @RequestHeader(value = "Idempotency-Key", required = false)
+                                              String idempotencyKey,
+                                              @AuthenticationPrincipal UserPrincipal principal) {
+        logger.debug("Submission for quiz {} from user {}: {}", id, principal.getId(), submission);
         submission.setQuizId(id);
         try {
-            int score = quizService.submitQuiz(submission, userId);
-            System.out.println("Calculated score: " + score);
+            int score = quizService.submitQuiz(submission, principal.getId(), idempotencyKey);
+            logger.debug("Calculated score {} for quiz {}", score, id);
             return ResponseEntity.ok(score);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(-1);
         } catch (RuntimeException e) {
-            System.err.println("Error submitting quiz: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error submitting quiz {}", id, e);
             return ResponseEntity.badRequest().body(-1);
         }
     }
 
     @GetMapping("/creator/{creatorId}")
-    public ResponseEntity<List<Quiz>> getQuizzesByCreator(@PathVariable String creatorId) {
-        List<Quiz> quizzes = quizService.getQuizzesByCreator(creatorId);
-        return ResponseEntity.ok(quizzes);
+    public ResponseEntity<QuizCatalogPageDTO> getQuizzesByCreator(
+            @PathVariable String creatorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(required = false) String direction,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.catalogTag())) {
+            return null;
+        }
+        return revalidated(quizCatalogService.getCatalog(null, creatorId, sort, direction, cursor, limit));
+    }
+
+    // Clients may keep the body but must revalidate it with the ETag before reuse
+    private static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
     }
-}
\ No newline at end of file
+}
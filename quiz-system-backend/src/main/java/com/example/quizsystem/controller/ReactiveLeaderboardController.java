@@ -0,0 +1,76 @@
+package com.example.quizsystem.controller;
+
+import com.example.quizsystem.model.LeaderboardEntry;
+import com.example.quizsystem.service.ContentVersions;
+import com.example.quizsystem.service.ReactiveLeaderboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Returning null once checkNotModified matched lets MVC answer 304 before any Mono is built
+@RestController
+@RequestMapping("/api/leaderboard")
+@Profile("reactive")
+public class ReactiveLeaderboardController {
+
+    @Autowired
+    private ReactiveLeaderboardService leaderboardService;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @GetMapping("/global")
+    public Mono<ResponseEntity<List<LeaderboardEntry>>> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.globalLeaderboardTag())) {
+            return null;
+        }
+        return leaderboardService.getGlobalLeaderboard(offset, limit).map(ReactiveLeaderboardController::revalidated);
+    }
+
+    @GetMapping("/global/rank/{userId}")
+    public Mono<ResponseEntity<LeaderboardEntry>> getGlobalRank(@PathVariable String userId, WebRequest request) {
+        if (request.checkNotModified(contentVersions.globalLeaderboardTag())) {
+            return null;
+        }
+        return leaderboardService.getGlobalRank(userId)
+                .map(ReactiveLeaderboardController::revalidated)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/quiz/{quizId}")
+    public Mono<ResponseEntity<List<LeaderboardEntry>>> getQuizLeaderboard(
+            @PathVariable String quizId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(contentVersions.quizAttemptsTag(quizId, null))) {
+            return null;
+        }
+        return leaderboardService.getQuizLeaderboard(quizId, offset, limit).map(ReactiveLeaderboardController::revalidated);
+    }
+
+    @GetMapping("/quiz/{quizId}/rank/{userId}")
+    public Mono<ResponseEntity<LeaderboardEntry>> getQuizRank(@PathVariable String quizId, @PathVariable String userId,
+                                                              WebRequest request) {
+        if (request.checkNotModified(contentVersions.quizAttemptsTag(quizId, null))) {
+            return null;
+        }
+        return leaderboardService.getQuizRank(quizId, userId)
+                .map(ReactiveLeaderboardController::revalidated)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Clients may keep the body but must revalidate it with the ETag before reuse
+    private static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+    }
+}
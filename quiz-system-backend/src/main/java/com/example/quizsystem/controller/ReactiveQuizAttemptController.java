@@ -0,0 +1,78 @@
+package com.example.quizsystem.controller;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.security.UserPrincipal;
+import com.example.quizsystem.service.AnswerAutosaveService;
+import com.example.quizsystem.service.ReactiveQuizAttemptService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+// Non-blocking start, time, autosave and submit; the request thread is released while Mongo works
+@RestController
+@RequestMapping("/api/quiz-attempts")
+@Profile("reactive")
+public class ReactiveQuizAttemptController {
+
+    @Autowired
+    private ReactiveQuizAttemptService quizAttemptService;
+
+    @Autowired
+    private AnswerAutosaveService answerAutosaveService;
+
+    @PostMapping("/start")
+    public Mono<ResponseEntity<QuizAttempt>> startQuizAttempt(@RequestBody Map<String, Object> request,
+                                                              @AuthenticationPrincipal UserPrincipal principal) {
+        String userId = principal.getId();
+        String quizId = (String) request.get("quizId");
+        Integer timeLimit = ((Number) request.get("timeLimit")).intValue();
+        return quizAttemptService.startQuizAttempt(userId, quizId, timeLimit)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{attemptId}/time")
+    public Mono<ResponseEntity<Integer>> getRemainingTime(@PathVariable String attemptId) {
+        return quizAttemptService.getRemainingTime(attemptId)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    // The same AnswerAutosaveService as the servlet controller; the answer key may have to be loaded
+    @PatchMapping("/{attemptId}/answers")
+    public Mono<ResponseEntity<Void>> saveAnswers(
+            @PathVariable String attemptId,
+            @RequestBody Map<String, Integer> answers,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return Mono.fromRunnable(() -> answerAutosaveService.saveAnswers(attemptId, principal.getId(), answers))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.just(ResponseEntity.accepted().<Void>build()));
+    }
+
+    @GetMapping("/{attemptId}/answer-key")
+    public Mono<ResponseEntity<Map<String, Integer>>> getCorrectAnswers(
+            @PathVariable String attemptId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return quizAttemptService.getCorrectAnswers(attemptId, principal.getId())
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/submit/{attemptId}")
+    public Mono<ResponseEntity<?>> submitQuizAttempt(
+            @PathVariable String attemptId,
+            @RequestBody Map<String, Integer> answers,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return quizAttemptService.submitQuizAttempt(attemptId, principal.getId(), answers, idempotencyKey)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(ResponseStatusException.class,
+                        e -> Mono.just(ResponseEntity.status(e.getStatusCode()).body(e.getReason())))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+}
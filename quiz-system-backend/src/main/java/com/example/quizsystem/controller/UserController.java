@@ -1,13 +1,17 @@
 package com.example.quizsystem.controller;
 
 import com.example.quizsystem.model.User;
+import com.example.quizsystem.service.RosterImportService;
 import com.example.quizsystem.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -16,14 +20,21 @@ public class UserController {
 
     private final UserService userService;
 
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    @Autowired
+    private JsonStreamResponder jsonStreamResponder;
+
     @Autowired
     public UserController(UserService userService) {
         this.userService = userService;
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return jsonStreamResponder.stream(accept, userService::streamAllUsers);
     }
 
     @GetMapping("/{id}")
@@ -33,6 +44,19 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) throws IOException {
+        RosterImportService.Format format = contentType.startsWith("text/csv")
+                ? RosterImportService.Format.CSV
+                : RosterImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(rosterImportService.importUsers(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody User user) {
         User createdUser = userService.createUser(user);
@@ -0,0 +1,20 @@
+package com.example.quizsystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReportDTO {
+    private int received;
+    private int imported;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    public static class RowError {
+        private final int line;
+        private final String username;
+        private final String message;
+    }
+}
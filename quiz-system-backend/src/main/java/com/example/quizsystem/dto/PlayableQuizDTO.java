@@ -0,0 +1,44 @@
+package com.example.quizsystem.dto;
+
+import com.example.quizsystem.model.Quiz;
+import lombok.Data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// What a taker sees while playing: the questions and options, never the correct answers
+@Data
+public class PlayableQuizDTO {
+    private String id;
+    private String title;
+    private String description;
+    private String category;
+    private Integer timeLimit;
+    private List<Question> questions;
+
+    @Data
+    public static class Question {
+        private String id;
+        private String text;
+        private List<String> options;
+    }
+
+    public static PlayableQuizDTO from(Quiz quiz) {
+        PlayableQuizDTO playable = new PlayableQuizDTO();
+        playable.setId(quiz.getId());
+        playable.setTitle(quiz.getTitle());
+        playable.setDescription(quiz.getDescription());
+        playable.setCategory(quiz.getCategory());
+        playable.setTimeLimit(quiz.getTimeLimit());
+        if (quiz.getQuestions() != null) {
+            playable.setQuestions(quiz.getQuestions().stream().map(source -> {
+                Question question = new Question();
+                question.setId(source.getId());
+                question.setText(source.getText());
+                question.setOptions(source.getOptions());
+                return question;
+            }).collect(Collectors.toList()));
+        }
+        return playable;
+    }
+}
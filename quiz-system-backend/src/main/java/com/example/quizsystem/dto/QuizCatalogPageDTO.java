@@ -0,0 +1,14 @@
+package com.example.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class QuizCatalogPageDTO {
+    private List<QuizSummaryDTO> items;
+    // Opaque; pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+}
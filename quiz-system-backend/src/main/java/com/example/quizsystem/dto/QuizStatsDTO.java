@@ -1,12 +1,20 @@
 package com.example.quizsystem.dto;
 
 import java.util.List;
+import java.util.Map;
 
 public class QuizStatsDTO {
     private String quizId;
     private String quizTitle;
     private int totalAttempts;
     private double averageScore;
+    private int highestScore;
+    private int lowestScore;
+    private int medianScore;
+    private int p90Score;
+    private Map<Integer, Long> scoreDistribution;
+    private int page;
+    private int pageSize;
     private List<AttemptSummary> attempts;
 
     public static class AttemptSummary {
@@ -62,6 +70,62 @@ public class QuizStatsDTO {
         this.averageScore = averageScore;
     }
 
+    public int getHighestScore() {
+        return highestScore;
+    }
+
+    public void setHighestScore(int highestScore) {
+        this.highestScore = highestScore;
+    }
+
+    public int getLowestScore() {
+        return lowestScore;
+    }
+
+    public void setLowestScore(int lowestScore) {
+        this.lowestScore = lowestScore;
+    }
+
+    public int getMedianScore() {
+        return medianScore;
+    }
+
+    public void setMedianScore(int medianScore) {
+        this.medianScore = medianScore;
+    }
+
+    public int getP90Score() {
+        return p90Score;
+    }
+
+    public void setP90Score(int p90Score) {
+        this.p90Score = p90Score;
+    }
+
+    public Map<Integer, Long> getScoreDistribution() {
+        return scoreDistribution;
+    }
+
+    public void setScoreDistribution(Map<Integer, Long> scoreDistribution) {
+        this.scoreDistribution = scoreDistribution;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
     public List<AttemptSummary> getAttempts() {
         return attempts;
     }
@@ -0,0 +1,18 @@
+package com.example.quizsystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Catalog row: what a quiz listing needs, without questions or answers
+@Data
+public class QuizSummaryDTO {
+    private String id;
+    private String title;
+    private String description;
+    private String category;
+    private String creatorId;
+    private int questionCount;
+    private Integer timeLimit;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.example.quizsystem.event;
+
+import com.example.quizsystem.model.QuizAttempt;
+
+// Published once an attempt stops being active, whether it was submitted or expired
+public class AttemptCompletedEvent {
+    private final QuizAttempt attempt;
+
+    public AttemptCompletedEvent(QuizAttempt attempt) {
+        this.attempt = attempt;
+    }
+
+    public QuizAttempt getAttempt() {
+        return attempt;
+    }
+}
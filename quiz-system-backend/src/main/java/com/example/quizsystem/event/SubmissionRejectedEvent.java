@@ -0,0 +1,16 @@
+package com.example.quizsystem.event;
+
+import com.example.quizsystem.writebehind.PendingSubmission;
+
+// Published when Mongo refused a write-behind submission that had already been acknowledged
+public class SubmissionRejectedEvent {
+    private final PendingSubmission submission;
+
+    public SubmissionRejectedEvent(PendingSubmission submission) {
+        this.submission = submission;
+    }
+
+    public PendingSubmission getSubmission() {
+        return submission;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.quizsystem.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Keyed ranking backed by a size-augmented treap, so updates, rank lookups
+ * and positional reads are all O(log n). Values must be immutable and the
+ * comparator must define a total order (break ties on a unique field).
+ */
+public class RankIndex<K, V> {
+
+    private final Comparator<? super V> order;
+    private final Map<K, V> byKey = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node<V> root;
+
+    public RankIndex(Comparator<? super V> order) {
+        this.order = order;
+    }
+
+    public V update(K key, Function<V, V> updater) {
+        lock.writeLock().lock();
+        try {
+            V previous = byKey.get(key);
+            V next = updater.apply(previous);
+            if (previous != null) {
+                root = delete(root, previous);
+            }
+            if (next != null) {
+                root = insert(root, new Node<>(next));
+                byKey.put(key, next);
+            } else {
+                byKey.remove(key);
+            }
+            return next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        update(key, previous -> value);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byKey.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public V get(K key) {
+        lock.readLock().lock();
+        try {
+            return byKey.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Zero-based position of the key in the ranking, or -1 if it is not ranked.
+     */
+    public int rankOf(K key) {
+        lock.readLock().lock();
+        try {
+            V value = byKey.get(key);
+            if (value == null) {
+                return -1;
+            }
+            int rank = 0;
+            Node<V> node = root;
+            while (node != null) {
+                int cmp = order.compare(value, node.value);
+                if (cmp <= 0) {
+                    if (cmp == 0) {
+                        return rank + size(node.left);
+                    }
+                    node = node.left;
+                } else {
+                    rank += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<V> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = Math.max(offset, 0);
+            int to = (int) Math.min((long) from + Math.max(limit, 0), size(root));
+            if (from >= to) {
+                return Collections.emptyList();
+            }
+            List<V> out = new ArrayList<>(to - from);
+            collect(root, from, to, out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Node<V> node, int from, int to, List<V> out) {
+        if (node == null || from >= to) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (from < leftSize) {
+            collect(node.left, from, Math.min(to, leftSize), out);
+        }
+        if (from <= leftSize && leftSize < to) {
+            out.add(node.value);
+        }
+        if (to > leftSize + 1) {
+            collect(node.right, Math.max(from - leftSize - 1, 0), to - leftSize - 1, out);
+        }
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (fresh.priority > node.priority) {
+            Node<V>[] parts = split(node, fresh.value);
+            fresh.left = parts[0];
+            fresh.right = parts[1];
+            return fresh.recount();
+        }
+        if (order.compare(fresh.value, node.value) < 0) {
+            node.left = insert(node.left, fresh);
+        } else {
+            node.right = insert(node.right, fresh);
+        }
+        return node.recount();
+    }
+
+    private Node<V> delete(Node<V> node, V value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = order.compare(value, node.value);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, value);
+        } else {
+            node.right = delete(node.right, value);
+        }
+        return node.recount();
+    }
+
+    // Splits into (< value, >= value)
+    @SuppressWarnings("unchecked")
+    private Node<V>[] split(Node<V> node, V value) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (order.compare(node.value, value) < 0) {
+            Node<V>[] parts = split(node.right, value);
+            node.right = parts[0];
+            parts[0] = node.recount();
+            return parts;
+        }
+        Node<V>[] parts = split(node.left, value);
+        node.left = parts[1];
+        parts[1] = node.recount();
+        return parts;
+    }
+
+    private Node<V> merge(Node<V> left, Node<V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.recount();
+        }
+        right.left = merge(left, right.left);
+        return right.recount();
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<V> {
+        final V value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<V> left;
+        Node<V> right;
+        int size = 1;
+
+        Node(V value) {
+            this.value = value;
+        }
+
+        Node<V> recount() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+}
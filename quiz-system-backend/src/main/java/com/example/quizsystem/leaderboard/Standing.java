@@ -0,0 +1,60 @@
+package com.example.quizsystem.leaderboard;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Immutable running totals for one user inside a ranking.
+ */
+public final class Standing {
+
+    // Highest score first, then whoever got there first, then user id so the order is total
+    public static final Comparator<Standing> RANKING = Comparator
+            .comparingInt(Standing::getTotalScore).reversed()
+            .thenComparing(Standing::getLastCompletedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Standing::getUserId);
+
+    private final String userId;
+    private final int totalScore;
+    private final int quizzesTaken;
+    private final LocalDateTime lastCompletedAt;
+
+    public Standing(String userId, int totalScore, int quizzesTaken, LocalDateTime lastCompletedAt) {
+        this.userId = userId;
+        this.totalScore = totalScore;
+        this.quizzesTaken = quizzesTaken;
+        this.lastCompletedAt = lastCompletedAt;
+    }
+
+    public static Standing empty(String userId) {
+        return new Standing(userId, 0, 0, null);
+    }
+
+    public Standing plus(int score, LocalDateTime completedAt) {
+        LocalDateTime latest = lastCompletedAt == null || (completedAt != null && completedAt.isAfter(lastCompletedAt))
+                ? completedAt
+                : lastCompletedAt;
+        return new Standing(userId, totalScore + score, quizzesTaken + 1, latest);
+    }
+
+    // Takes back one attempt; lastCompletedAt is kept since earlier completions are not tracked
+    public Standing minus(int score) {
+        return new Standing(userId, totalScore - score, quizzesTaken - 1, lastCompletedAt);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public int getTotalScore() {
+        return totalScore;
+    }
+
+    public int getQuizzesTaken() {
+        return quizzesTaken;
+    }
+
+    public LocalDateTime getLastCompletedAt() {
+        return lastCompletedAt;
+    }
+}
@@ -8,4 +8,5 @@ public class LeaderboardEntry {
     private String username;
     private int totalScore;
     private int quizzesTaken;
-}
\ No newline at end of file
+    private int rank;
+}
@@ -2,6 +2,8 @@ package com.example.quizsystem.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -9,6 +11,12 @@ import java.util.List;
 
 @Data
 @Document(collection = "quizzes")
+@CompoundIndexes({
+        // Catalog pages, optionally filtered by category or creator, newest first
+        @CompoundIndex(name = "created", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "category_created", def = "{'category': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "creator_created", def = "{'creatorId': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Quiz {
     @Id
     private String id;
@@ -2,13 +2,26 @@ package com.example.quizsystem.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
 @Data
 @Document(collection = "quiz_attempts")
+@CompoundIndexes({
+        // findByUserId, (userId, quizId, isActive) and latest attempt by startedAt
+        @CompoundIndex(name = "user_quiz_started", def = "{'userId': 1, 'quizId': 1, 'startedAt': -1}"),
+        // findByQuizId, stats histogram and score-ordered attempt pages
+        @CompoundIndex(name = "quiz_score", def = "{'quizId': 1, 'score': -1}"),
+        // Durable dedupe of Idempotency-Key submissions, once they fall out of IdempotencyWindow
+        @CompoundIndex(name = "user_idempotency_key", def = "{'userId': 1, 'idempotencyKey': 1}", unique = true,
+                partialFilter = "{'idempotencyKey': {'$exists': true}}")
+})
 public class QuizAttempt {
     @Id
     private String id;
@@ -20,6 +33,20 @@ public class QuizAttempt {
     private LocalDateTime completedAt;
     // Add these new fields
     private Integer timeLimit;  // in seconds
-    private Integer timeRemaining;  // in seconds
+    private LocalDateTime expiresAt;  // startedAt + timeLimit, fixed when the attempt starts
     private boolean isActive;
-}
\ No newline at end of file
+    private String idempotencyKey;
+
+    // Derived from expiresAt on every read, so the remaining time is never written back
+    @Transient
+    public Integer getTimeRemaining() {
+        if (expiresAt == null) {
+            return null;
+        }
+        return isActive ? secondsUntil(expiresAt) : 0;
+    }
+
+    public static int secondsUntil(LocalDateTime deadline) {
+        return (int) Math.max(0, ChronoUnit.SECONDS.between(LocalDateTime.now(), deadline));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.quizsystem.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Current token version per user; tokens issued with a lower version are rejected
+@Data
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+    @Id
+    private String userId;
+    private int tokenVersion;
+    @Indexed
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.example.quizsystem.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Persisted snapshot of the global leaderboard, one document per user keyed by userId
+@Data
+@Document(collection = "leaderboard_totals")
+public class UserScoreTotal {
+    @Id
+    private String userId;
+    private int totalScore;
+    private int quizzesTaken;
+    private LocalDateTime lastCompletedAt;
+}
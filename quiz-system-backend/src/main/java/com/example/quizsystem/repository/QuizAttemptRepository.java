@@ -1,7 +1,9 @@
 package com.example.quizsystem.repository;
 
 import com.example.quizsystem.model.QuizAttempt;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +15,8 @@ public interface QuizAttemptRepository extends MongoRepository<QuizAttempt, Stri
     List<QuizAttempt> findByQuizId(String quizId);
     Optional<QuizAttempt> findByUserIdAndQuizIdAndIsActive(String userId, String quizId, boolean isActive);
     Optional<QuizAttempt> findFirstByUserIdAndQuizIdOrderByStartedAtDesc(String userId, String quizId);
+    Optional<QuizAttempt> findByUserIdAndIdempotencyKey(String userId, String idempotencyKey);
+
+    @Query(value = "{ 'quizId': ?0, 'completedAt': { '$ne': null } }", fields = "{ 'userId': 1, 'score': 1 }")
+    List<QuizAttempt> findCompletedScoresByQuizId(String quizId, Pageable pageable);
 }
\ No newline at end of file
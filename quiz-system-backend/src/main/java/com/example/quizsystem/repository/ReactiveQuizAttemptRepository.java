@@ -0,0 +1,12 @@
+package com.example.quizsystem.repository;
+
+import com.example.quizsystem.model.QuizAttempt;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveQuizAttemptRepository extends ReactiveMongoRepository<QuizAttempt, String> {
+    Flux<QuizAttempt> findByUserId(String userId);
+    Flux<QuizAttempt> findByQuizId(String quizId);
+    Mono<QuizAttempt> findByUserIdAndIdempotencyKey(String userId, String idempotencyKey);
+}
@@ -0,0 +1,10 @@
+package com.example.quizsystem.repository;
+
+import com.example.quizsystem.model.Quiz;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveQuizRepository extends ReactiveMongoRepository<Quiz, String> {
+    Flux<Quiz> findByCreatorId(String creatorId);
+    Flux<Quiz> findByCategory(String category);
+}
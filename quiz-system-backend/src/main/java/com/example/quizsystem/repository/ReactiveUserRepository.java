@@ -0,0 +1,16 @@
+package com.example.quizsystem.repository;
+
+import com.example.quizsystem.model.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<User> findByUsername(String username);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'username': 1 }")
+    Flux<User> findUsernamesByIdIn(Collection<String> ids);
+}
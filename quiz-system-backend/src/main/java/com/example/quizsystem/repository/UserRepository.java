@@ -2,7 +2,10 @@ package com.example.quizsystem.repository;
 
 import com.example.quizsystem.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
@@ -10,4 +13,7 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'username': 1 }")
+    List<User> findUsernamesByIdIn(Collection<String> ids);
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.example.quizsystem.scoring;
+
+import com.example.quizsystem.model.Quiz;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable answer key compiled once per quiz version. Question ids are
+ * resolved up front (including the text-hash fallback) and the correct
+ * options are held in a flat array, so scoring a submission allocates nothing.
+ */
+public final class AnswerKey {
+
+    private final String quizId;
+    private final LocalDateTime version;
+    private final String[] questionIds;
+    private final int[] correctOptions;
+    private final Map<String, Integer> indexByQuestionId;
+
+    private AnswerKey(String quizId, LocalDateTime version, String[] questionIds, int[] correctOptions) {
+        this.quizId = quizId;
+        this.version = version;
+        this.questionIds = questionIds;
+        this.correctOptions = correctOptions;
+
+        Map<String, Integer> index = new HashMap<>(questionIds.length * 2);
+        for (int i = 0; i < questionIds.length; i++) {
+            index.putIfAbsent(questionIds[i], i);
+        }
+        this.indexByQuestionId = Collections.unmodifiableMap(index);
+    }
+
+    public static AnswerKey compile(Quiz quiz) {
+        List<Quiz.Question> questions = quiz.getQuestions() != null ? quiz.getQuestions() : Collections.emptyList();
+        String[] questionIds = new String[questions.size()];
+        int[] correctOptions = new int[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            Quiz.Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            correctOptions[i] = question.getCorrectOptionIndex();
+        }
+        return new AnswerKey(quiz.getId(), quiz.getUpdatedAt(), questionIds, correctOptions);
+    }
+
+    public int score(Map<String, Integer> answers) {
+        if (answers == null || answers.isEmpty()) {
+            return 0;
+        }
+        int score = 0;
+        for (int i = 0; i < questionIds.length; i++) {
+            Integer selected = answers.get(questionIds[i]);
+            if (selected != null && selected == correctOptions[i]) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Dense index of the question, or -1 if the quiz has no such question.
+     */
+    public int indexOf(String questionId) {
+        Integer index = indexByQuestionId.get(questionId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Correct option per question id, for showing results after completion.
+     */
+    public Map<String, Integer> correctOptions() {
+        Map<String, Integer> correct = new LinkedHashMap<>(questionIds.length * 2);
+        for (int i = 0; i < questionIds.length; i++) {
+            correct.putIfAbsent(questionIds[i], correctOptions[i]);
+        }
+        return Collections.unmodifiableMap(correct);
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    public String getQuizId() {
+        return quizId;
+    }
+
+    public LocalDateTime getVersion() {
+        return version;
+    }
+}
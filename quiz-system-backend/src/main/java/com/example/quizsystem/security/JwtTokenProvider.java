@@ -1,12 +1,17 @@
 package com.example.quizsystem.security;
 
-import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.crypto.SecretKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.*;
@@ -14,17 +19,27 @@ import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtTokenProvider {
-
-    @Value("${app.jwtSecret}")
-    private String jwtSecret;
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String VERSION_CLAIM = "ver";
 
     @Value("${app.jwtExpirationInMs}")
     private int jwtExpirationInMs;
 
-    private SecretKey key;
+    private final SecretKey key;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // Immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser;
 
     public JwtTokenProvider(@Value("${app.jwtSecret}") String jwtSecret) {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -35,40 +50,43 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toList()))
+                .claim(VERSION_CLAIM, tokenRevocationService.currentVersion(userPrincipal.getId()))
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(key)
                 .compact();
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+    /**
+     * Verifies the token and returns its claims in a single parse, or null if
+     * the token is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("Rejected JWT: {}", ex.getMessage());
+            return null;
+        }
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException ex) {
-            // Log error about invalid JWT signature
-        } catch (MalformedJwtException ex) {
-            // Log error about invalid JWT token
-        } catch (ExpiredJwtException ex) {
-            // Log error about expired JWT token
-        } catch (UnsupportedJwtException ex) {
-            // Log error about unsupported JWT token
-        } catch (IllegalArgumentException ex) {
-            // Log error about JWT claims string being empty
+    /**
+     * Builds the principal straight from the claims, or returns null for
+     * tokens issued before userId and roles were embedded.
+     */
+    public UserPrincipal toPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
         }
-        return false;
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return UserPrincipal.fromClaims(userId, claims.getSubject(),
+                roles.stream().map(String::valueOf).collect(Collectors.toList()),
+                version != null ? version : 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.example.quizsystem.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived, size-bounded cache of verified token to UserPrincipal, so a
+ * repeated token skips both signature verification and the user lookup.
+ * Keyed by the exact token string, which was verified when it was cached.
+ * Entries never outlive the token's own expiry and are dropped when
+ * UserService changes or deletes the user.
+ */
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    public PrincipalCache(@Value("${app.principalCache.maxSize:10000}") int maxSize,
+                          @Value("${app.principalCache.ttlSeconds:60}") long ttlSeconds) {
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public UserPrincipal get(String token) {
+        synchronized (entries) {
+            Entry entry = entries.get(token);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(token);
+                return null;
+            }
+            return entry.principal;
+        }
+    }
+
+    public void put(String token, UserPrincipal principal, Date tokenExpiry) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (tokenExpiry != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiry.getTime());
+        }
+        synchronized (entries) {
+            entries.put(token, new Entry(principal, expiresAt));
+        }
+    }
+
+    public void evictUser(String userId) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.principal.getId().equals(userId));
+        }
+    }
+
+    private static final class Entry {
+        final UserPrincipal principal;
+        final long expiresAt;
+
+        Entry(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
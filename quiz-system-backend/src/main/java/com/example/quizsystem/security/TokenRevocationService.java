@@ -0,0 +1,95 @@
+package com.example.quizsystem.security;
+
+import com.example.quizsystem.model.TokenRevocation;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Token versions per user, kept in memory so the JWT filter can check
+ * revocation without a database read. Revoking bumps the version in Mongo;
+ * other nodes pick the change up on their next sync, so a revoked token can
+ * keep working elsewhere for at most one sync interval.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Value("${app.tokenRevocation.syncIntervalMs:30000}")
+    private long syncIntervalMs;
+
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime syncedAt = LocalDateTime.now();
+        mongoTemplate.findAll(TokenRevocation.class).forEach(this::apply);
+        lastSync = syncedAt;
+        logger.info("Loaded token versions for {} users", versions.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokenRevocation.syncIntervalMs:30000}")
+    public void sync() {
+        try {
+            LocalDateTime syncedAt = LocalDateTime.now();
+            // Overlap the previous window so writes racing the last sync are not missed
+            List<TokenRevocation> changed = mongoTemplate.find(
+                    query(where("updatedAt").gte(lastSync.minus(Duration.ofMillis(syncIntervalMs)))),
+                    TokenRevocation.class);
+            changed.forEach(this::apply);
+            lastSync = syncedAt;
+        } catch (RuntimeException e) {
+            logger.error("Token revocation sync failed", e);
+        }
+    }
+
+    public int currentVersion(String userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    public boolean isRevoked(String userId, int tokenVersion) {
+        return tokenVersion < currentVersion(userId);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far.
+     */
+    public void revokeAll(String userId) {
+        TokenRevocation revocation = mongoTemplate.findAndModify(
+                query(where("_id").is(userId)),
+                new Update().inc("tokenVersion", 1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                TokenRevocation.class);
+        apply(revocation);
+    }
+
+    private void apply(TokenRevocation revocation) {
+        int previous = currentVersion(revocation.getUserId());
+        if (versions.merge(revocation.getUserId(), revocation.getTokenVersion(), Math::max) > previous) {
+            principalCache.evictUser(revocation.getUserId());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.quizsystem.security;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +17,7 @@ public class UserPrincipal implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private int tokenVersion;
 
     public UserPrincipal(String id, String username, String email, String password, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
@@ -24,9 +27,27 @@ public class UserPrincipal implements UserDetails {
         this.authorities = authorities;
     }
 
+    // Built from verified token claims; carries no email or password
+    public static UserPrincipal fromClaims(String id, String username, List<String> roles, int tokenVersion) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        UserPrincipal principal = new UserPrincipal(id, username, null, null, authorities);
+        principal.tokenVersion = tokenVersion;
+        return principal;
+    }
+
     public static UserPrincipal create(User user) {
-        // Since your User model doesn't have roles, we'll assign a default role
-        Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        // Every user holds ROLE_USER; extra roles such as ADMIN are granted in the database
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        if (user.getRoles() != null) {
+            user.getRoles().stream()
+                    .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                    .filter(role -> !role.equals("ROLE_USER"))
+                    .map(SimpleGrantedAuthority::new)
+                    .forEach(authorities::add);
+        }
 
         return new UserPrincipal(
                 user.getId(),
@@ -79,4 +100,8 @@ public class UserPrincipal implements UserDetails {
     public String getEmail() {
         return email;
     }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.event.AttemptCompletedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.scoring.AnswerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Autosave for in-progress answers. Deltas are merged per attempt in memory,
+ * later answers to the same question replacing earlier ones, and a periodic
+ * flush writes each attempt's changed questions with one $set on
+ * answers.&lt;questionId&gt;, only while the attempt is still active.
+ */
+@Service
+public class AnswerAutosaveService {
+    private static final Logger logger = LoggerFactory.getLogger(AnswerAutosaveService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AttemptExpiryService attemptExpiryService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Value("${app.autosave.batchSize:500}")
+    private int batchSize;
+
+    private final Map<String, Map<String, Integer>> pending = new ConcurrentHashMap<>();
+
+    public void saveAnswers(String attemptId, String userId, Map<String, Integer> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt attempt = attemptExpiryService.getTrackedAttempt(attemptId)
+                .filter(tracked -> tracked.getUserId().equals(userId) && tracked.getExpiresAt().isAfter(now))
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST, "Quiz attempt is no longer active."));
+
+        // Keys become Mongo field paths, so only the quiz's own question ids are accepted
+        AnswerKey answerKey = quizService.getAnswerKey(attempt.getQuizId());
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            if (delta.getValue() == null || answerKey.indexOf(delta.getKey()) < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown question: " + delta.getKey());
+            }
+        }
+
+        pending.merge(attemptId, new HashMap<>(deltas), (saved, latest) -> {
+            saved.putAll(latest);
+            return saved;
+        });
+    }
+
+    @EventListener
+    public void onAttemptCompleted(AttemptCompletedEvent event) {
+        // The submitted answers supersede anything not yet flushed
+        pending.remove(event.getAttempt().getId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.autosave.flushIntervalMs:2000}")
+    public void flush() {
+        List<String> attemptIds = pending.keySet().stream().limit(batchSize).collect(Collectors.toList());
+        while (!attemptIds.isEmpty()) {
+            Map<String, Map<String, Integer>> batch = new HashMap<>();
+            for (String attemptId : attemptIds) {
+                Map<String, Integer> answers = pending.remove(attemptId);
+                if (answers != null) {
+                    batch.put(attemptId, answers);
+                }
+            }
+            if (!batch.isEmpty() && !write(batch)) {
+                return;
+            }
+            attemptIds = pending.keySet().stream().limit(batchSize).collect(Collectors.toList());
+        }
+    }
+
+    private boolean write(Map<String, Map<String, Integer>> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuizAttempt.class);
+        batch.forEach((attemptId, answers) -> {
+            Update update = new Update();
+            answers.forEach((questionId, answer) -> update.set("answers." + questionId, answer));
+            bulk.updateOne(query(where("_id").is(attemptId).and("isActive").is(true)), update);
+        });
+        try {
+            bulk.execute();
+            return true;
+        } catch (RuntimeException e) {
+            // Put the deltas back under anything newer that arrived meanwhile and retry on the next run
+            batch.forEach((attemptId, answers) -> pending.merge(attemptId, answers, (newer, older) -> {
+                older.putAll(newer);
+                return older;
+            }));
+            logger.error("Autosave flush of {} attempts failed", batch.size(), e);
+            return false;
+        }
+    }
+}
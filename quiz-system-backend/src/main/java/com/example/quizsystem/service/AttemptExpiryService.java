@@ -0,0 +1,257 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.event.AttemptCompletedEvent;
+import com.example.quizsystem.event.SubmissionRejectedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.writebehind.PendingSubmission;
+import com.example.quizsystem.writebehind.SubmissionWriteBehind;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Closes timed-out attempts in the background. Deadlines of all active
+ * attempts are kept in a deadline-ordered set, rebuilt from Mongo at startup,
+ * and a periodic sweep expires everything that is due with a single updateMany.
+ */
+@Service
+@DependsOn("attemptDeadlineMigration")
+public class AttemptExpiryService {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptExpiryService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SubmissionWriteBehind submissionWriteBehind;
+
+    @Value("${app.attemptExpiry.batchSize:500}")
+    private int batchSize;
+
+    private final Set<PendingExpiry> byDeadline = new ConcurrentSkipListSet<>(
+            Comparator.comparing(PendingExpiry::getDeadline).thenComparing(PendingExpiry::getAttemptId));
+    private final Map<String, PendingExpiry> byAttemptId = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadActiveAttempts() {
+        Query activeAttempts = query(where("isActive").is(true));
+        activeAttempts.fields().include("userId", "quizId", "expiresAt", "isActive");
+        List<QuizAttempt> attempts = mongoTemplate.find(activeAttempts, QuizAttempt.class);
+        attempts.forEach(this::track);
+        logger.info("Tracking deadlines for {} active attempts", byAttemptId.size());
+    }
+
+    public void track(QuizAttempt attempt) {
+        if (!attempt.isActive() || attempt.getExpiresAt() == null) {
+            return;
+        }
+        PendingExpiry pending = new PendingExpiry(attempt.getId(), attempt.getUserId(), attempt.getQuizId(),
+                attempt.getExpiresAt());
+        PendingExpiry previous = byAttemptId.put(pending.getAttemptId(), pending);
+        if (previous != null) {
+            byDeadline.remove(previous);
+        }
+        byDeadline.add(pending);
+    }
+
+    public Optional<LocalDateTime> getDeadline(String attemptId) {
+        return Optional.ofNullable(byAttemptId.get(attemptId)).map(PendingExpiry::getDeadline);
+    }
+
+    public Optional<String> getTrackedQuizId(String attemptId) {
+        return Optional.ofNullable(byAttemptId.get(attemptId)).map(PendingExpiry::getQuizId);
+    }
+
+    /**
+     * The tracked state of an active attempt, without its answers.
+     */
+    public Optional<QuizAttempt> getTrackedAttempt(String attemptId) {
+        return Optional.ofNullable(byAttemptId.get(attemptId)).map(pending -> {
+            QuizAttempt attempt = new QuizAttempt();
+            attempt.setId(pending.getAttemptId());
+            attempt.setUserId(pending.getUserId());
+            attempt.setQuizId(pending.getQuizId());
+            attempt.setExpiresAt(pending.getDeadline());
+            attempt.setActive(true);
+            return attempt;
+        });
+    }
+
+    @EventListener
+    public void onAttemptCompleted(AttemptCompletedEvent event) {
+        untrack(event.getAttempt().getId());
+    }
+
+    // A refused write-behind completion leaves the attempt active in Mongo, so its deadline applies again
+    @EventListener
+    public void onSubmissionRejected(SubmissionRejectedEvent event) {
+        if (event.getSubmission().getKind() != PendingSubmission.Kind.COMPLETE) {
+            return;
+        }
+        QuizAttempt rejected = event.getSubmission().getAttempt();
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(rejected.getId());
+        attempt.setUserId(rejected.getUserId());
+        attempt.setQuizId(rejected.getQuizId());
+        attempt.setExpiresAt(rejected.getExpiresAt());
+        attempt.setActive(true);
+        track(attempt);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attemptExpiry.sweepIntervalMs:5000}")
+    public void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<PendingExpiry> due = new ArrayList<>();
+            for (PendingExpiry pending : byDeadline) {
+                if (pending.getDeadline().isAfter(now)) {
+                    break;
+                }
+                due.add(pending);
+                if (due.size() == batchSize) {
+                    expire(due);
+                    due = new ArrayList<>();
+                }
+            }
+            if (!due.isEmpty()) {
+                expire(due);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Attempt expiry sweep failed", e);
+        }
+    }
+
+    /**
+     * Expires the given attempt right away if its deadline has passed, instead
+     * of waiting for the next sweep.
+     */
+    public void expireIfDue(String attemptId) {
+        PendingExpiry pending = byAttemptId.get(attemptId);
+        if (pending != null && !pending.getDeadline().isAfter(LocalDateTime.now())) {
+            expire(List.of(pending));
+        }
+    }
+
+    public void expireAttempt(QuizAttempt attempt) {
+        expire(List.of(new PendingExpiry(attempt.getId(), attempt.getUserId(), attempt.getQuizId(),
+                LocalDateTime.now())));
+    }
+
+    private void expire(Collection<PendingExpiry> candidates) {
+        // A completion already queued behind the write-behind buffer owns the attempt
+        List<PendingExpiry> batch = candidates.stream()
+                .filter(pending -> !submissionWriteBehind.isPending(pending.getAttemptId()))
+                .collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Truncated so the marker survives the round trip through Mongo's millisecond dates
+        LocalDateTime completedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<String> ids = batch.stream().map(PendingExpiry::getAttemptId).collect(Collectors.toList());
+
+        long modified = mongoTemplate.updateMulti(
+                query(where("_id").in(ids).and("isActive").is(true)),
+                new Update()
+                        .set("isActive", false)
+                        .set("score", 0)
+                        .set("completedAt", completedAt),
+                QuizAttempt.class).getModifiedCount();
+
+        Collection<PendingExpiry> expired = batch;
+        if (modified < ids.size()) {
+            // Some were submitted concurrently; only the ones carrying our completedAt were expired here
+            Query ours = query(where("_id").in(ids).and("completedAt").is(completedAt).and("score").is(0));
+            ours.fields().include("_id");
+            Set<String> expiredIds = mongoTemplate.find(ours, QuizAttempt.class).stream()
+                    .map(QuizAttempt::getId)
+                    .collect(Collectors.toSet());
+            expired = batch.stream().filter(pending -> expiredIds.contains(pending.getAttemptId()))
+                    .collect(Collectors.toList());
+        }
+
+        batch.forEach(pending -> untrack(pending.getAttemptId()));
+        for (PendingExpiry pending : expired) {
+            QuizAttempt attempt = new QuizAttempt();
+            attempt.setId(pending.getAttemptId());
+            attempt.setUserId(pending.getUserId());
+            attempt.setQuizId(pending.getQuizId());
+            attempt.setScore(0);
+            attempt.setCompletedAt(completedAt);
+            attempt.setActive(false);
+            leaderboardService.recordCompletion(attempt);
+            eventPublisher.publishEvent(new AttemptCompletedEvent(attempt));
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Expired {} timed-out attempts", expired.size());
+        }
+    }
+
+    public void untrack(String attemptId) {
+        PendingExpiry pending = byAttemptId.remove(attemptId);
+        if (pending != null) {
+            byDeadline.remove(pending);
+        }
+    }
+
+    private static final class PendingExpiry {
+        private final String attemptId;
+        private final String userId;
+        private final String quizId;
+        private final LocalDateTime deadline;
+
+        PendingExpiry(String attemptId, String userId, String quizId, LocalDateTime deadline) {
+            this.attemptId = attemptId;
+            this.userId = userId;
+            this.quizId = quizId;
+            this.deadline = deadline;
+        }
+
+        String getAttemptId() {
+            return attemptId;
+        }
+
+        String getUserId() {
+            return userId;
+        }
+
+        String getQuizId() {
+            return quizId;
+        }
+
+        LocalDateTime getDeadline() {
+            return deadline;
+        }
+    }
+}
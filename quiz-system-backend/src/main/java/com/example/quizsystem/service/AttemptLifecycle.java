@@ -0,0 +1,225 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.event.AttemptCompletedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.writebehind.PendingSubmission;
+import com.example.quizsystem.writebehind.SubmissionWriteBehind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Start, time and submit rules for attempts, shared by QuizAttemptService and
+ * ReactiveQuizAttemptService. Both stacks build the same queries, run the same
+ * checks and do the same bookkeeping through here, and only bring their own
+ * Mongo driver for the reads and writes in between.
+ */
+@Component
+public class AttemptLifecycle {
+
+    @Autowired
+    private AttemptExpiryService attemptExpiryService;
+
+    @Autowired
+    private SubmissionWriteBehind submissionWriteBehind;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuizService quizService;
+
+    // The latest attempt, created by the upsert if there is none; the one_active_attempt
+    // partial unique index turns a concurrent double start into a duplicate key on the loser
+    public Query latestAttempt(String userId, String quizId) {
+        return query(where("userId").is(userId).and("quizId").is(quizId))
+                .with(Sort.by(Sort.Direction.DESC, "startedAt"));
+    }
+
+    public Update newAttempt(Integer timeLimit) {
+        LocalDateTime now = LocalDateTime.now();
+        return new Update()
+                .setOnInsert("startedAt", now)
+                .setOnInsert("timeLimit", timeLimit)
+                .setOnInsert("expiresAt", now.plusSeconds(timeLimit))
+                .setOnInsert("score", 0)
+                .setOnInsert("isActive", true);
+    }
+
+    /**
+     * Checks a started or resumed attempt: true if it can be played, false if
+     * its time is up, in which case the caller expires it and fails with
+     * attemptExpired(). Throws if the attempt was already completed.
+     */
+    public boolean checkPlayable(QuizAttempt attempt) {
+        if (!attempt.isActive() || submissionWriteBehind.isPending(attempt.getId())) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Quiz already attempted. Multiple attempts are not allowed."
+            );
+        }
+        return attempt.getTimeRemaining() != null && attempt.getTimeRemaining() > 0;
+    }
+
+    public ResponseStatusException attemptExpired() {
+        return new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Previous attempt has expired. Multiple attempts are not allowed."
+        );
+    }
+
+    public QuizAttempt play(QuizAttempt attempt) {
+        attemptExpiryService.track(attempt);
+        return attempt;
+    }
+
+    // Blocking: closes the attempt in Mongo and credits the leaderboard
+    public void expire(QuizAttempt attempt) {
+        attemptExpiryService.expireAttempt(attempt);
+    }
+
+    /**
+     * Remaining seconds when memory can answer: the attempt is tracked, or its
+     * completion is still queued. Empty if the attempt has to be read.
+     */
+    public Optional<Integer> knownRemainingTime(String attemptId) {
+        Optional<LocalDateTime> deadline = attemptExpiryService.getDeadline(attemptId);
+        if (deadline.isPresent()) {
+            return Optional.of(QuizAttempt.secondsUntil(deadline.get()));
+        }
+        return submissionWriteBehind.isPending(attemptId) ? Optional.of(0) : Optional.empty();
+    }
+
+    public int remainingTime(QuizAttempt attempt) {
+        Integer remainingTime = attempt.getTimeRemaining();
+        return remainingTime != null ? remainingTime : 0;
+    }
+
+    public ResponseStatusException attemptNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Attempt not found");
+    }
+
+    public String submitScope(String attemptId) {
+        return "attempt-submit/" + attemptId;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return submissionWriteBehind.isEnabled();
+    }
+
+    public Optional<String> trackedQuizId(String attemptId) {
+        return attemptExpiryService.getTrackedQuizId(attemptId);
+    }
+
+    /**
+     * Completes a tracked attempt through the write-behind buffer, or returns
+     * null for the caller to take its synchronous path. Blocking: the answer
+     * key may be loaded and the journal append is file I/O.
+     */
+    public QuizAttempt submitBehind(String attemptId, String userId, Map<String, Integer> answers,
+                                    String idempotencyKey) {
+        if (!submissionWriteBehind.claim(attemptId)) {
+            throw noLongerActive();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt attempt = attemptExpiryService.getTrackedAttempt(attemptId)
+                .filter(tracked -> tracked.getUserId().equals(userId) && tracked.getExpiresAt().isAfter(now))
+                .orElse(null);
+        if (attempt == null) {
+            submissionWriteBehind.release(attemptId);
+            return null;
+        }
+
+        attempt.setAnswers(answers);
+        attempt.setScore(quizService.getAnswerKey(attempt.getQuizId()).score(answers));
+        attempt.setActive(false);
+        attempt.setCompletedAt(now);
+        attempt.setIdempotencyKey(idempotencyKey);
+        // The claim keeps the expiry sweep away from this attempt until the flush lands
+        if (!submissionWriteBehind.enqueue(PendingSubmission.Kind.COMPLETE, attempt)) {
+            submissionWriteBehind.release(attemptId);
+            return null;
+        }
+
+        attemptExpiryService.untrack(attemptId);
+        leaderboardService.recordCompletionInMemory(attempt);
+        eventPublisher.publishEvent(new AttemptCompletedEvent(attempt));
+        return attempt;
+    }
+
+    // Only the owner's attempt that is still active and inside its deadline can be completed,
+    // so a retried or late submit and the expiry sweep cannot both win
+    public Query completableAttempt(String attemptId, String userId, LocalDateTime now) {
+        return query(where("_id").is(attemptId).and("userId").is(userId)
+                .and("isActive").is(true).and("expiresAt").gt(now));
+    }
+
+    public Update completion(Map<String, Integer> answers, int score, LocalDateTime now, String idempotencyKey) {
+        Update completion = new Update()
+                .set("answers", answers)
+                .set("score", score)
+                .set("isActive", false)
+                .set("completedAt", now);
+        if (idempotencyKey != null) {
+            completion.set("idempotencyKey", idempotencyKey);
+        }
+        return completion;
+    }
+
+    public ResponseStatusException idempotencyKeyReused() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key was already used");
+    }
+
+    /**
+     * The submission a retry repeats, once the retry has outlived the in-memory
+     * window; throws if the key was used for another attempt.
+     */
+    public QuizAttempt checkOriginal(QuizAttempt original, String attemptId) {
+        if (!original.getId().equals(attemptId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key was already used for another attempt");
+        }
+        return original;
+    }
+
+    public ResponseStatusException noLongerActive() {
+        return new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Quiz attempt is no longer active. The time has expired or it was already submitted."
+        );
+    }
+
+    /**
+     * Correct answers are only revealed to the attempt's owner once it is
+     * completed, including a completion still queued for write-behind.
+     */
+    public void checkReviewable(QuizAttempt attempt, String userId) {
+        if (!attempt.getUserId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot review another user's attempt");
+        }
+        if (attempt.isActive() && !submissionWriteBehind.isPending(attempt.getId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Answers are shown once the attempt is completed");
+        }
+    }
+
+    // Blocking: writes the leaderboard snapshot
+    public QuizAttempt completed(QuizAttempt saved) {
+        leaderboardService.recordCompletion(saved);
+        eventPublisher.publishEvent(new AttemptCompletedEvent(saved));
+        return saved;
+    }
+}
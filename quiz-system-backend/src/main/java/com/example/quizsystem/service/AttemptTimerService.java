@@ -0,0 +1,234 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.TimerUpdateDTO;
+import com.example.quizsystem.event.AttemptCompletedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.repository.QuizAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes remaining time to takers over server-sent events. A single scheduler
+ * thread computes every subscribed attempt's remaining time from its deadline
+ * in memory; deadlines come from AttemptExpiryService, which also persists the
+ * expiry when an attempt runs out of time. Writes to clients happen on virtual
+ * threads, one at a time per emitter and keeping only the latest update, so a
+ * slow client delays nobody else; one stuck past the send timeout is dropped.
+ */
+@Service
+public class AttemptTimerService {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptTimerService.class);
+    private static final long EMITTER_GRACE_MS = 30_000;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private AttemptExpiryService attemptExpiryService;
+
+    @Value("${app.timerStream.tickMs:1000}")
+    private long tickMs;
+
+    @Value("${app.timerStream.sendTimeoutMs:5000}")
+    private long sendTimeoutMs;
+
+    private final Map<String, TimerSubscription> subscriptions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("attempt-timer-send-", 0).factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attempt-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscriptions.values().forEach(subscription -> subscription.streams.forEach(stream -> stream.emitter.complete()));
+    }
+
+    public SseEmitter subscribe(String attemptId, String userId) {
+        TimerSubscription subscription = subscriptions.get(attemptId);
+        if (subscription == null) {
+            QuizAttempt attempt = attemptExpiryService.getTrackedAttempt(attemptId)
+                    .orElseGet(() -> quizAttemptRepository.findById(attemptId)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Attempt not found")));
+            LocalDateTime deadline = attempt.isActive() && attempt.getExpiresAt() != null
+                    ? attempt.getExpiresAt() : LocalDateTime.now();
+            subscription = subscriptions.computeIfAbsent(attemptId,
+                    id -> new TimerSubscription(attempt.getUserId(), deadline));
+        }
+        if (!subscription.userId.equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot follow another user's attempt");
+        }
+
+        int remaining = subscription.remainingSeconds();
+        SseEmitter emitter = new SseEmitter(remaining * 1000L + EMITTER_GRACE_MS);
+        TimerStream stream = new TimerStream(attemptId, emitter);
+        TimerSubscription registered = subscription;
+        emitter.onCompletion(() -> registered.streams.remove(stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> registered.streams.remove(stream));
+        subscription.streams.add(stream);
+        // The tick may have dropped an idle subscription between our lookup and the add
+        subscriptions.putIfAbsent(attemptId, subscription);
+
+        stream.push(new Update(remaining, remaining <= 0));
+        return emitter;
+    }
+
+    @EventListener
+    public void onAttemptCompleted(AttemptCompletedEvent event) {
+        TimerSubscription subscription = subscriptions.remove(event.getAttempt().getId());
+        if (subscription != null) {
+            subscription.streams.forEach(stream -> stream.push(new Update(0, true)));
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            subscriptions.forEach((attemptId, subscription) -> {
+                int remaining = subscription.remainingSeconds();
+                subscription.streams.forEach(stream -> {
+                    if (stream.isStuck(now, sendTimeoutMs)) {
+                        subscription.streams.remove(stream);
+                        stream.emitter.completeWithError(new TimeoutException("Timer update not delivered in time"));
+                    } else {
+                        stream.push(new Update(remaining, remaining <= 0));
+                    }
+                });
+                if (remaining <= 0) {
+                    subscriptions.remove(attemptId);
+                    attemptExpiryService.expireIfDue(attemptId);
+                } else if (subscription.streams.isEmpty()) {
+                    subscriptions.remove(attemptId, subscription);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Attempt timer tick failed", e);
+        }
+    }
+
+    private void send(String attemptId, SseEmitter emitter, int remaining) {
+        TimerUpdateDTO update = new TimerUpdateDTO();
+        update.setQuizAttemptId(attemptId);
+        update.setTimeRemaining(remaining);
+        try {
+            emitter.send(SseEmitter.event().name("time").data(update));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private record Update(int remaining, boolean last) {
+    }
+
+    private static final class TimerSubscription {
+        final String userId;
+        final LocalDateTime deadline;
+        final List<TimerStream> streams = new CopyOnWriteArrayList<>();
+
+        TimerSubscription(String userId, LocalDateTime deadline) {
+            this.userId = userId;
+            this.deadline = deadline;
+        }
+
+        int remainingSeconds() {
+            return QuizAttempt.secondsUntil(deadline);
+        }
+    }
+
+    // Serialises writes to one emitter, coalescing updates that arrive while a write is in flight
+    private final class TimerStream {
+        final String attemptId;
+        final SseEmitter emitter;
+        private final AtomicReference<Update> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long sendingSince;
+
+        TimerStream(String attemptId, SseEmitter emitter) {
+            this.attemptId = attemptId;
+            this.emitter = emitter;
+        }
+
+        void push(Update update) {
+            if (closed) {
+                return;
+            }
+            // A final update is never overwritten by a later tick
+            pending.updateAndGet(current -> current != null && current.last() ? current : update);
+            schedule();
+        }
+
+        boolean isStuck(long now, long timeoutMs) {
+            long since = sendingSince;
+            return since != 0 && now - since > timeoutMs;
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Update update;
+                while ((update = pending.getAndSet(null)) != null) {
+                    if (update.last()) {
+                        closed = true;
+                    }
+                    sendingSince = System.currentTimeMillis();
+                    send(attemptId, emitter, update.remaining());
+                    sendingSince = 0;
+                    if (update.last()) {
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (pending.get() != null) {
+                schedule();
+            }
+        }
+    }
+}
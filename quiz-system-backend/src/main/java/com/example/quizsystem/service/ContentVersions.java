@@ -0,0 +1,68 @@
+package com.example.quizsystem.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters behind the ETags of the read endpoints, bumped
+ * by the services that change the underlying data, so a conditional GET can
+ * be answered with 304 before any repository is touched. Counters restart
+ * with the process; the random epoch in every tag keeps a restarted node from
+ * matching tags it handed out before.
+ */
+@Component
+public class ContentVersions {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final Map<String, AtomicLong> quizAttempts = new ConcurrentHashMap<>();
+
+    public void catalogChanged() {
+        catalog.incrementAndGet();
+    }
+
+    // Stats and leaderboards only read completed attempts, so starts never need a bump
+    public void attemptsChanged(String quizId) {
+        attempts.incrementAndGet();
+        quizAttempts.computeIfAbsent(quizId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Usernames are joined into leaderboards and stats
+    public void usersChanged() {
+        users.incrementAndGet();
+    }
+
+    // Data-derived, so no epoch needed
+    public String quizTag(LocalDateTime quizVersion, boolean withAnswers) {
+        return "\"v" + millis(quizVersion) + (withAnswers ? "" : "p") + "\"";
+    }
+
+    public String catalogTag() {
+        return tag("c" + catalog.get());
+    }
+
+    public String globalLeaderboardTag() {
+        return tag("g" + attempts.get() + "u" + users.get());
+    }
+
+    public String quizAttemptsTag(String quizId, LocalDateTime quizVersion) {
+        AtomicLong counter = quizAttempts.get(quizId);
+        return tag("q" + millis(quizVersion) + "a" + (counter != null ? counter.get() : 0) + "u" + users.get());
+    }
+
+    public static long millis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    private String tag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
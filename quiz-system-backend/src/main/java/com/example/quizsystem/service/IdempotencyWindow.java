@@ -0,0 +1,160 @@
+package com.example.quizsystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, short-lived window of recent Idempotency-Key results per user.
+ * The first request with a key runs the operation; retries with the same key
+ * get its result, waiting a bounded time for it if it is still running,
+ * without running the operation again. Failed operations are forgotten so a
+ * retry can succeed. Callers keep a durable fallback for retries that arrive
+ * after eviction.
+ */
+@Component
+public class IdempotencyWindow {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final long ttlMillis;
+    private final long waitTimeoutMs;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyWindow(@Value("${app.idempotency.maxSize:10000}") int maxSize,
+                             @Value("${app.idempotency.ttlSeconds:600}") long ttlSeconds,
+                             @Value("${app.idempotency.waitTimeoutMs:10000}") long waitTimeoutMs) {
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String userId, String key, Supplier<T> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        String id = entryId(scope, userId, key);
+        Entry mine = newEntry();
+        Entry existing = claim(id, mine);
+        if (existing != null) {
+            return (T) await(existing.result);
+        }
+
+        try {
+            T result = operation.get();
+            mine.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, or callers waiting on this entry would never be released
+            forget(id, mine, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reactive form of execute over the same window. Duplicates wait for the
+     * original's result without blocking a thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(String scope, String userId, String key, Supplier<Mono<T>> operation) {
+        if (key == null) {
+            return Mono.defer(operation);
+        }
+        return Mono.defer(() -> {
+            String id = entryId(scope, userId, key);
+            Entry mine = newEntry();
+            Entry existing = claim(id, mine);
+            if (existing != null) {
+                // Cancelling this wait must not cancel the original's shared future
+                return Mono.fromFuture(existing.result, true)
+                        .map(result -> (T) result)
+                        .timeout(Duration.ofMillis(waitTimeoutMs), Mono.error(stillInProgress()));
+            }
+            return operation.get()
+                    .doOnSuccess(result -> mine.result.complete(result))
+                    .doOnError(e -> forget(id, mine, e))
+                    .doOnCancel(() -> forget(id, mine, new CancellationException()));
+        });
+    }
+
+    private static String entryId(String scope, String userId, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+        }
+        return scope + '\n' + userId + '\n' + key;
+    }
+
+    private Entry newEntry() {
+        return new Entry(new CompletableFuture<>(), System.currentTimeMillis() + ttlMillis);
+    }
+
+    // Registers mine unless a live entry exists, which is returned instead
+    private Entry claim(String id, Entry mine) {
+        synchronized (entries) {
+            Entry existing = entries.get(id);
+            if (existing == null || existing.expiresAt <= System.currentTimeMillis()) {
+                entries.put(id, mine);
+                return null;
+            }
+            return existing;
+        }
+    }
+
+    private void forget(String id, Entry mine, Throwable failure) {
+        synchronized (entries) {
+            entries.remove(id, mine);
+        }
+        mine.result.completeExceptionally(failure);
+    }
+
+    private Object await(CompletableFuture<Object> original) {
+        try {
+            return original.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw stillInProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+        }
+    }
+
+    private static ResponseStatusException stillInProgress() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> result;
+        final long expiresAt;
+
+        Entry(CompletableFuture<Object> result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
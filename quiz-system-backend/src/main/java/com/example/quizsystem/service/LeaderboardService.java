@@ -0,0 +1,271 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.leaderboard.RankIndex;
+import com.example.quizsystem.leaderboard.Standing;
+import com.example.quizsystem.model.LeaderboardEntry;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.model.UserScoreTotal;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@DependsOn("submissionJournal")
+public class LeaderboardService {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+    private static final int APPLIED_BATCHES_KEPT = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UsernameResolver usernameResolver;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    private final RankIndex<String, Standing> globalRanking = new RankIndex<>(Standing.RANKING);
+    private final Map<String, RankIndex<String, Standing>> quizRankings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadRankings() {
+        loadGlobalRanking();
+        loadQuizRankings();
+    }
+
+    private void loadGlobalRanking() {
+        List<UserScoreTotal> totals = mongoTemplate.findAll(UserScoreTotal.class);
+        if (totals.isEmpty()) {
+            totals = rebuildTotalsFromAttempts();
+        }
+        globalRanking.clear();
+        for (UserScoreTotal total : totals) {
+            globalRanking.put(total.getUserId(), new Standing(
+                    total.getUserId(), total.getTotalScore(), total.getQuizzesTaken(), total.getLastCompletedAt()));
+        }
+        logger.info("Global leaderboard loaded with {} users", globalRanking.size());
+    }
+
+    private void loadQuizRankings() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(where("completedAt").ne(null)),
+                Aggregation.group("quizId", "userId")
+                        .sum("score").as("totalScore")
+                        .count().as("quizzesTaken")
+                        .max("completedAt").as("lastCompletedAt"));
+        quizRankings.clear();
+        for (Document row : mongoTemplate.aggregate(aggregation, QuizAttempt.class, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            String quizId = key.getString("quizId");
+            String userId = key.getString("userId");
+            Date lastCompletedAt = row.getDate("lastCompletedAt");
+            quizRanking(quizId).put(userId, new Standing(
+                    userId,
+                    row.get("totalScore", Number.class).intValue(),
+                    row.get("quizzesTaken", Number.class).intValue(),
+                    lastCompletedAt != null
+                            ? LocalDateTime.ofInstant(lastCompletedAt.toInstant(), ZoneId.systemDefault())
+                            : null));
+        }
+        logger.info("Quiz leaderboards loaded for {} quizzes", quizRankings.size());
+    }
+
+    private RankIndex<String, Standing> quizRanking(String quizId) {
+        return quizRankings.computeIfAbsent(quizId, id -> new RankIndex<>(Standing.RANKING));
+    }
+
+    // One-off migration for databases that predate the leaderboard_totals snapshot
+    private List<UserScoreTotal> rebuildTotalsFromAttempts() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(where("completedAt").ne(null)),
+                Aggregation.group("userId")
+                        .sum("score").as("totalScore")
+                        .count().as("quizzesTaken")
+                        .max("completedAt").as("lastCompletedAt"));
+        List<UserScoreTotal> totals = mongoTemplate
+                .aggregate(aggregation, QuizAttempt.class, UserScoreTotal.class)
+                .getMappedResults();
+        if (!totals.isEmpty()) {
+            mongoTemplate.insertAll(totals);
+            logger.info("Rebuilt leaderboard snapshot for {} users from quiz attempts", totals.size());
+        }
+        return totals;
+    }
+
+    public void recordCompletion(QuizAttempt attempt) {
+        persistCompletions(List.of(attempt));
+        recordCompletionInMemory(attempt);
+    }
+
+    public void recordCompletionInMemory(QuizAttempt attempt) {
+        Function<Standing, Standing> addAttempt = standing ->
+                (standing != null ? standing : Standing.empty(attempt.getUserId()))
+                        .plus(attempt.getScore(), attempt.getCompletedAt());
+        globalRanking.update(attempt.getUserId(), addAttempt);
+        quizRanking(attempt.getQuizId()).update(attempt.getUserId(), addAttempt);
+        contentVersions.attemptsChanged(attempt.getQuizId());
+    }
+
+    /**
+     * Undoes recordCompletionInMemory for a completion that never reached Mongo.
+     */
+    public void revokeCompletionInMemory(QuizAttempt attempt) {
+        Function<Standing, Standing> removeAttempt = standing ->
+                standing == null || standing.getQuizzesTaken() <= 1 ? null : standing.minus(attempt.getScore());
+        globalRanking.update(attempt.getUserId(), removeAttempt);
+        RankIndex<String, Standing> quizRanking = quizRankings.get(attempt.getQuizId());
+        if (quizRanking != null) {
+            quizRanking.update(attempt.getUserId(), removeAttempt);
+        }
+        contentVersions.attemptsChanged(attempt.getQuizId());
+    }
+
+    public void persistCompletions(List<QuizAttempt> attempts) {
+        persistCompletions(attempts, null);
+    }
+
+    /**
+     * Adds the attempts to the leaderboard_totals snapshot. With a batchId the
+     * write can be retried safely: each user's document remembers the last
+     * few batches it absorbed and skips one it has already seen.
+     */
+    public void persistCompletions(List<QuizAttempt> attempts, String batchId) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        // One update per user, so each document takes the whole batch or none of it
+        Map<String, UserScoreTotal> deltas = new LinkedHashMap<>();
+        for (QuizAttempt attempt : attempts) {
+            UserScoreTotal delta = deltas.computeIfAbsent(attempt.getUserId(), userId -> {
+                UserScoreTotal total = new UserScoreTotal();
+                total.setUserId(userId);
+                return total;
+            });
+            delta.setTotalScore(delta.getTotalScore() + attempt.getScore());
+            delta.setQuizzesTaken(delta.getQuizzesTaken() + 1);
+            LocalDateTime completedAt = attempt.getCompletedAt();
+            if (completedAt != null && (delta.getLastCompletedAt() == null || completedAt.isAfter(delta.getLastCompletedAt()))) {
+                delta.setLastCompletedAt(completedAt);
+            }
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserScoreTotal.class);
+        for (UserScoreTotal delta : deltas.values()) {
+            Update update = new Update()
+                    .inc("totalScore", delta.getTotalScore())
+                    .inc("quizzesTaken", delta.getQuizzesTaken());
+            if (delta.getLastCompletedAt() != null) {
+                update.max("lastCompletedAt", delta.getLastCompletedAt());
+            }
+            Criteria target = where("_id").is(delta.getUserId());
+            if (batchId != null) {
+                target = target.and("appliedBatches").ne(batchId);
+                update.push("appliedBatches").slice(-APPLIED_BATCHES_KEPT).each(batchId);
+            }
+            bulk.upsert(query(target), update);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // The upsert of a document that already lists the batch collides on _id: it was applied before
+            if (batchId == null || !e.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw e;
+            }
+        }
+    }
+
+    public List<LeaderboardEntry> getGlobalLeaderboard(int offset, int limit) {
+        return withUsernames(rankedEntries(null, offset, limit));
+    }
+
+    public LeaderboardEntry getGlobalRank(String userId) {
+        return withUsername(rankedEntry(null, userId));
+    }
+
+    public List<LeaderboardEntry> getQuizLeaderboard(String quizId, int offset, int limit) {
+        return withUsernames(rankedEntries(quizId, offset, limit));
+    }
+
+    public LeaderboardEntry getQuizRank(String quizId, String userId) {
+        return withUsername(rankedEntry(quizId, userId));
+    }
+
+    /**
+     * A page of the global ranking, or of one quiz if quizId is set, read
+     * purely from memory. Usernames are left for the caller to fill in.
+     */
+    public List<LeaderboardEntry> rankedEntries(String quizId, int offset, int limit) {
+        RankIndex<String, Standing> ranking = ranking(quizId);
+        if (ranking == null) {
+            return Collections.emptyList();
+        }
+        return toEntries(ranking.range(offset, limit), Math.max(offset, 0));
+    }
+
+    public LeaderboardEntry rankedEntry(String quizId, String userId) {
+        RankIndex<String, Standing> ranking = ranking(quizId);
+        if (ranking == null) {
+            return null;
+        }
+        Standing standing = ranking.get(userId);
+        int rank = ranking.rankOf(userId);
+        if (standing == null || rank < 0) {
+            return null;
+        }
+        return toEntries(List.of(standing), rank).get(0);
+    }
+
+    private RankIndex<String, Standing> ranking(String quizId) {
+        return quizId == null ? globalRanking : quizRankings.get(quizId);
+    }
+
+    private LeaderboardEntry withUsername(LeaderboardEntry entry) {
+        return entry != null ? withUsernames(List.of(entry)).get(0) : null;
+    }
+
+    private List<LeaderboardEntry> withUsernames(List<LeaderboardEntry> entries) {
+        Map<String, String> usernames = usernameResolver.resolveUsernames(
+                entries.stream().map(LeaderboardEntry::getUserId).collect(Collectors.toList()));
+        entries.forEach(entry -> entry.setUsername(usernames.getOrDefault(entry.getUserId(), "Unknown")));
+        return entries;
+    }
+
+    private List<LeaderboardEntry> toEntries(List<Standing> standings, int firstRank) {
+        List<LeaderboardEntry> entries = new ArrayList<>(standings.size());
+        int rank = firstRank;
+        for (Standing standing : standings) {
+            LeaderboardEntry entry = new LeaderboardEntry();
+            entry.setUserId(standing.getUserId());
+            entry.setTotalScore(standing.getTotalScore());
+            entry.setQuizzesTaken(standing.getQuizzesTaken());
+            entry.setRank(++rank);
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.PlayableQuizDTO;
+import com.example.quizsystem.model.Quiz;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The answer-free play representation of one quiz version, serialized once
+ * and served as-is. The ETag is a digest of the JSON, so it is strong and
+ * changes exactly when the content does; the gzip variant gets its own tag.
+ */
+public final class PlayView {
+
+    private final byte[] json;
+    private final byte[] gzipped;
+    private final String etag;
+
+    private PlayView(byte[] json, byte[] gzipped, String etag) {
+        this.json = json;
+        this.gzipped = gzipped;
+        this.etag = etag;
+    }
+
+    static PlayView render(Quiz quiz, ObjectMapper objectMapper, boolean gzip) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(PlayableQuizDTO.from(quiz));
+            return new PlayView(json, gzip ? gzip(json) : null, DigestUtils.md5DigestAsHex(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    // Null when pre-compression is disabled
+    public byte[] getGzipped() {
+        return gzipped;
+    }
+
+    public String getEtag() {
+        return "\"" + etag + "\"";
+    }
+
+    public String getGzipEtag() {
+        return "\"" + etag + "-gzip\"";
+    }
+
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(getEtag()) || tag.equals(getGzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,22 +2,23 @@ package com.example.quizsystem.service;
 
 import com.example.quizsystem.model.Quiz;
 import com.example.quizsystem.model.QuizAttempt;
-import com.example.quizsystem.model.User;
 import com.example.quizsystem.repository.QuizAttemptRepository;
-import com.example.quizsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
-import com.example.quizsystem.model.LeaderboardEntry;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 public class QuizAttemptService {
@@ -25,128 +26,99 @@ public class QuizAttemptService {
     @Autowired
     private QuizAttemptRepository quizAttemptRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private QuizService quizService;
 
-    public QuizAttempt startQuizAttempt(String userId, String quizId, Integer timeLimit) {
-        // First check if user has any completed attempts
-        Optional<QuizAttempt> lastAttempt = quizAttemptRepository
-                .findFirstByUserIdAndQuizIdOrderByStartedAtDesc(userId, quizId);
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
-        if (lastAttempt.isPresent()) {
-            QuizAttempt attempt = lastAttempt.get();
-            // If the last attempt is completed, prevent new attempts
-            if (!attempt.isActive() && attempt.getCompletedAt() != null) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "Quiz already attempted. Multiple attempts are not allowed."
-                );
-            }
-        }
+    @Autowired
+    private AttemptLifecycle attemptLifecycle;
 
-        // Check for any existing active attempt for this specific user
-        Optional<QuizAttempt> existingActiveAttempt = quizAttemptRepository
-                .findByUserIdAndQuizIdAndIsActive(userId, quizId, true);
+    @Autowired
+    private IdempotencyWindow idempotencyWindow;
 
-        if (existingActiveAttempt.isPresent()) {
-            QuizAttempt attempt = existingActiveAttempt.get();
-            // Calculate remaining time for this specific attempt
-            long elapsedSeconds = ChronoUnit.SECONDS.between(
-                    attempt.getStartedAt(),
-                    LocalDateTime.now()
-            );
-            int remainingTime = attempt.getTimeLimit() - (int) elapsedSeconds;
+    public QuizAttempt startQuizAttempt(String userId, String quizId, Integer timeLimit) {
+        QuizAttempt attempt;
+        try {
+            attempt = findOrCreateLatestAttempt(userId, quizId, timeLimit);
+        } catch (DuplicateKeyException e) {
+            attempt = findOrCreateLatestAttempt(userId, quizId, timeLimit);
+        }
 
-            if (remainingTime > 0) {
-                attempt.setTimeRemaining(remainingTime);
-                return quizAttemptRepository.save(attempt);
-            } else {
-                // Mark this attempt as completed if time is up
-                markAttemptAsCompleted(attempt);
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "Previous attempt has expired. Multiple attempts are not allowed."
-                );
-            }
+        if (!attemptLifecycle.checkPlayable(attempt)) {
+            // Mark this attempt as completed if time is up
+            attemptLifecycle.expire(attempt);
+            throw attemptLifecycle.attemptExpired();
         }
+        return attemptLifecycle.play(attempt);
+    }
 
-        // Create new attempt
-        QuizAttempt newAttempt = new QuizAttempt();
-        newAttempt.setUserId(userId);
-        newAttempt.setQuizId(quizId);
-        newAttempt.setStartedAt(LocalDateTime.now());
-        newAttempt.setTimeLimit(timeLimit);
-        newAttempt.setTimeRemaining(timeLimit);
-        newAttempt.setActive(true);
-        return quizAttemptRepository.save(newAttempt);
+    private QuizAttempt findOrCreateLatestAttempt(String userId, String quizId, Integer timeLimit) {
+        return mongoTemplate.findAndModify(attemptLifecycle.latestAttempt(userId, quizId),
+                attemptLifecycle.newAttempt(timeLimit),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), QuizAttempt.class);
     }
 
     public Integer getRemainingTime(String attemptId) {
-        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Attempt not found"
-                ));
-
-        if (!attempt.isActive()) {
-            return 0;
-        }
-
-        long elapsedSeconds = ChronoUnit.SECONDS.between(
-                attempt.getStartedAt(),
-                LocalDateTime.now()
-        );
-        int remainingTime = attempt.getTimeLimit() - (int) elapsedSeconds;
-
-        if (remainingTime <= 0) {
-            markAttemptAsCompleted(attempt);
-            return 0;
-        }
-
-        attempt.setTimeRemaining(remainingTime);
-        quizAttemptRepository.save(attempt);
-        return remainingTime;
+        // Active attempts are tracked in memory; only finished or unknown ones need a read
+        return attemptLifecycle.knownRemainingTime(attemptId)
+                .orElseGet(() -> attemptLifecycle.remainingTime(quizAttemptRepository.findById(attemptId)
+                        .orElseThrow(attemptLifecycle::attemptNotFound)));
     }
 
-    private void markAttemptAsCompleted(QuizAttempt attempt) {
-        attempt.setActive(false);
-        attempt.setTimeRemaining(0);
-        attempt.setCompletedAt(LocalDateTime.now());
-        if (attempt.getAnswers() == null) {
-            attempt.setAnswers(new HashMap<>());
-        }
-        attempt.setScore(0); // Set score to 0 for expired attempts
-        quizAttemptRepository.save(attempt);
+    public QuizAttempt submitQuizAttempt(String attemptId, String userId, Map<String, Integer> answers,
+                                         String idempotencyKey) {
+        return idempotencyWindow.execute(attemptLifecycle.submitScope(attemptId), userId, idempotencyKey,
+                () -> completeAttempt(attemptId, userId, answers, idempotencyKey));
     }
 
-    public QuizAttempt submitQuizAttempt(String attemptId, Map<String, Integer> answers) {
-        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Attempt not found"
-                ));
+    private QuizAttempt completeAttempt(String attemptId, String userId, Map<String, Integer> answers,
+                                        String idempotencyKey) {
+        if (attemptLifecycle.isWriteBehindEnabled()) {
+            QuizAttempt acknowledged = attemptLifecycle.submitBehind(attemptId, userId, answers, idempotencyKey);
+            if (acknowledged != null) {
+                return acknowledged;
+            }
+        }
 
-        if (!attempt.isActive()) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Quiz attempt is no longer active. The time has expired or it was already submitted."
-            );
+        // Active attempts are tracked in memory, so usually only the final write touches Mongo
+        String quizId = attemptLifecycle.trackedQuizId(attemptId)
+                .orElseGet(() -> quizAttemptRepository.findById(attemptId)
+                        .map(QuizAttempt::getQuizId)
+                        .orElseThrow(attemptLifecycle::attemptNotFound));
+        int score = quizService.getAnswerKey(quizId).score(answers);
+
+        LocalDateTime now = LocalDateTime.now();
+        QuizAttempt saved;
+        try {
+            saved = mongoTemplate.findAndModify(
+                    attemptLifecycle.completableAttempt(attemptId, userId, now),
+                    attemptLifecycle.completion(answers, score, now, idempotencyKey),
+                    FindAndModifyOptions.options().returnNew(true),
+                    QuizAttempt.class);
+        } catch (DuplicateKeyException e) {
+            throw attemptLifecycle.idempotencyKeyReused();
         }
 
-        int remainingTime = getRemainingTime(attemptId);
-        if (remainingTime <= 0) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Quiz time has expired"
-            );
+        if (saved == null && idempotencyKey != null) {
+            // A retry that outlived the in-memory window gets the submission it repeats
+            Optional<QuizAttempt> original = quizAttemptRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+            if (original.isPresent()) {
+                return attemptLifecycle.checkOriginal(original.get(), attemptId);
+            }
         }
+        if (saved == null) {
+            throw attemptLifecycle.noLongerActive();
+        }
+        return attemptLifecycle.completed(saved);
+    }
 
-        attempt.setAnswers(answers);
-        attempt.setScore(calculateScore(attempt));
-        attempt.setActive(false);
-        attempt.setCompletedAt(LocalDateTime.now());
-        return quizAttemptRepository.save(attempt);
+    public Map<String, Integer> getCorrectAnswers(String attemptId, String userId) {
+        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
+                .orElseThrow(attemptLifecycle::attemptNotFound);
+        attemptLifecycle.checkReviewable(attempt, userId);
+        return quizService.getAnswerKey(attempt.getQuizId()).correctOptions();
     }
 
     public boolean hasAttemptedQuiz(String userId, String quizId) {
@@ -156,26 +128,19 @@ public class QuizAttemptService {
         return lastAttempt.isPresent() && !lastAttempt.get().isActive();
     }
 
-    private int calculateScore(QuizAttempt attempt) {
-        Quiz quiz = quizService.getQuizById(attempt.getQuizId());
-        if (quiz == null) return 0;
-
-        int score = 0;
-        for (Quiz.Question question : quiz.getQuestions()) {
-            Integer selectedOption = attempt.getAnswers().get(question.getId());
-            if (selectedOption != null && selectedOption == question.getCorrectOptionIndex()) {
-                score++;
-            }
-        }
-        return score;
-    }
-
     public List<QuizAttempt> getAttemptsByUser(String userId) {
         return quizAttemptRepository.findByUserId(userId);
     }
 
-    public List<QuizAttempt> getAttemptsByQuiz(String quizId) {
-        return quizAttemptRepository.findByQuizId(quizId);
+    /**
+     * Open cursors over a user's or a quiz's attempts; the caller must close them.
+     */
+    public Stream<QuizAttempt> streamAttemptsByUser(String userId) {
+        return mongoTemplate.stream(query(where("userId").is(userId)), QuizAttempt.class);
+    }
+
+    public Stream<QuizAttempt> streamAttemptsByQuiz(String quizId) {
+        return mongoTemplate.stream(query(where("quizId").is(quizId)), QuizAttempt.class);
     }
 
     public boolean canStartNewAttempt(String userId, String quizId) {
@@ -197,52 +162,6 @@ public class QuizAttemptService {
         return true;
     }
 
-    public List<LeaderboardEntry> getGlobalLeaderboard() {
-        List<QuizAttempt> allAttempts = quizAttemptRepository.findAll();
-        Map<String, List<QuizAttempt>> attemptsByUser = allAttempts.stream()
-                .collect(Collectors.groupingBy(QuizAttempt::getUserId));
-
-        return attemptsByUser.entrySet().stream()
-                .map(entry -> {
-                    String userId = entry.getKey();
-                    List<QuizAttempt> userAttempts = entry.getValue();
-                    User user = userRepository.findById(userId).orElse(null);
-
-                    LeaderboardEntry leaderboardEntry = new LeaderboardEntry();
-                    leaderboardEntry.setUserId(userId);
-                    leaderboardEntry.setUsername(user != null ? user.getUsername() : "Unknown");
-                    leaderboardEntry.setTotalScore(userAttempts.stream().mapToInt(QuizAttempt::getScore).sum());
-                    leaderboardEntry.setQuizzesTaken(userAttempts.size());
-
-                    return leaderboardEntry;
-                })
-                .sorted((e1, e2) -> Integer.compare(e2.getTotalScore(), e1.getTotalScore()))
-                .collect(Collectors.toList());
-    }
-
-    public List<LeaderboardEntry> getQuizLeaderboard(String quizId) {
-        List<QuizAttempt> quizAttempts = quizAttemptRepository.findByQuizId(quizId);
-        Map<String, List<QuizAttempt>> attemptsByUser = quizAttempts.stream()
-                .collect(Collectors.groupingBy(QuizAttempt::getUserId));
-
-        return attemptsByUser.entrySet().stream()
-                .map(entry -> {
-                    String userId = entry.getKey();
-                    List<QuizAttempt> userAttempts = entry.getValue();
-                    User user = userRepository.findById(userId).orElse(null);
-
-                    LeaderboardEntry leaderboardEntry = new LeaderboardEntry();
-                    leaderboardEntry.setUserId(userId);
-                    leaderboardEntry.setUsername(user != null ? user.getUsername() : "Unknown");
-                    leaderboardEntry.setTotalScore(userAttempts.stream().mapToInt(QuizAttempt::getScore).sum());
-                    leaderboardEntry.setQuizzesTaken(userAttempts.size());
-
-                    return leaderboardEntry;
-                })
-                .sorted((e1, e2) -> Integer.compare(e2.getTotalScore(), e1.getTotalScore()))
-                .collect(Collectors.toList());
-    }
-
     public Map<String, Object> getUserAttemptDetails(String userId) {
         List<QuizAttempt> attempts = getAttemptsByUser(userId);
         List<Quiz> createdQuizzes = quizService.getQuizzesByCreator(userId);
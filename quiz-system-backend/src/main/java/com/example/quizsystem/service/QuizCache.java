@@ -0,0 +1,169 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.Quiz;
+import com.example.quizsystem.scoring.AnswerKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of quiz definitions, the answer keys compiled
+ * from them and their serialized play views, used by QuizService. Entries
+ * expire after a TTL and are versioned by updatedAt, so a slow load can never
+ * overwrite a newer copy written by updateQuiz, or resurrect a quiz removed
+ * by deleteQuiz.
+ */
+@Component
+public class QuizCache {
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+    private final ObjectMapper objectMapper;
+    private final boolean gzipPlayViews;
+
+    public QuizCache(@Value("${app.quizCache.maxSize:1000}") int maxSize,
+                     @Value("${app.quizCache.ttlSeconds:300}") long ttlSeconds,
+                     @Value("${app.quizCache.gzipPlayViews:true}") boolean gzipPlayViews,
+                     MeterRegistry meterRegistry,
+                     ObjectMapper objectMapper) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.objectMapper = objectMapper;
+        this.gzipPlayViews = gzipPlayViews;
+        this.hits = meterRegistry.counter("quiz.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("quiz.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("quiz.cache.evictions", "cause", "size");
+        this.expirations = meterRegistry.counter("quiz.cache.evictions", "cause", "expired");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("quiz.cache.size", this, QuizCache::size).register(meterRegistry);
+    }
+
+    public Optional<Quiz> get(String id, Function<String, Optional<Quiz>> loader) {
+        return Optional.ofNullable(lookup(id, loader)).map(entry -> entry.quiz);
+    }
+
+    public Optional<AnswerKey> getAnswerKey(String id, Function<String, Optional<Quiz>> loader) {
+        return Optional.ofNullable(lookup(id, loader)).map(entry -> entry.answerKey);
+    }
+
+    public Optional<PlayView> getPlayView(String id, Function<String, Optional<Quiz>> loader) {
+        return Optional.ofNullable(lookup(id, loader)).map(this::playView);
+    }
+
+    // Rendered on first request per version; a racing duplicate render is harmless
+    private PlayView playView(Entry entry) {
+        PlayView view = entry.playView;
+        if (view == null) {
+            view = PlayView.render(entry.quiz, objectMapper, gzipPlayViews);
+            entry.playView = view;
+        }
+        return view;
+    }
+
+    public AnswerKey put(Quiz quiz) {
+        return store(new Entry(quiz, quiz.getUpdatedAt())).answerKey;
+    }
+
+    /**
+     * Cached answer key without loading on a miss, for callers that load the
+     * quiz themselves and hand it back through put.
+     */
+    public Optional<AnswerKey> getCachedAnswerKey(String id) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.quiz != null && !entry.isExpired(ttlNanos)) {
+                hits.increment();
+                return Optional.of(entry.answerKey);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    private Entry lookup(String id, Function<String, Optional<Quiz>> loader) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.quiz != null) {
+                if (!entry.isExpired(ttlNanos)) {
+                    hits.increment();
+                    return entry;
+                }
+                entries.remove(id);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        return loader.apply(id)
+                .map(quiz -> store(new Entry(quiz, quiz.getUpdatedAt())))
+                .orElse(null);
+    }
+
+    // Skips the write if a newer version is already cached; the caller still gets its own copy
+    private Entry store(Entry candidate) {
+        synchronized (entries) {
+            Entry current = entries.get(candidate.quiz.getId());
+            if (current == null || current.isExpired(ttlNanos) || !isOlder(candidate.version, current.version)) {
+                entries.put(candidate.quiz.getId(), candidate);
+            }
+            return candidate;
+        }
+    }
+
+    // Leaves a tombstone so an in-flight load of the old document is not cached
+    public void invalidate(String id) {
+        synchronized (entries) {
+            entries.put(id, new Entry(null, LocalDateTime.now()));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static boolean isOlder(LocalDateTime candidate, LocalDateTime current) {
+        return candidate != null && current != null && candidate.isBefore(current);
+    }
+
+    private static final class Entry {
+        final Quiz quiz;
+        final AnswerKey answerKey;
+        final LocalDateTime version;
+        final long loadedAt = System.nanoTime();
+        volatile PlayView playView;
+
+        Entry(Quiz quiz, LocalDateTime version) {
+            this.quiz = quiz;
+            this.answerKey = quiz != null ? AnswerKey.compile(quiz) : null;
+            this.version = version;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.QuizCatalogPageDTO;
+import com.example.quizsystem.dto.QuizSummaryDTO;
+import com.example.quizsystem.model.Quiz;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keyset-paginated quiz listings. Each page is one aggregation that projects
+ * the catalog fields and a $size question count, sorted on (sort field, _id)
+ * and resumed from an opaque cursor holding the last row's sort key.
+ */
+@Service
+public class QuizCatalogService {
+
+    private static final int MAX_LIMIT = 200;
+    private static final Map<String, Sort.Direction> DEFAULT_DIRECTIONS = Map.of(
+            "createdAt", Sort.Direction.DESC,
+            "title", Sort.Direction.ASC);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public QuizCatalogPageDTO getCatalog(String category, String creatorId, String sort, String direction,
+                                         String cursor, int limit) {
+        if (!DEFAULT_DIRECTIONS.containsKey(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort field: " + sort);
+        }
+        Sort.Direction order = direction != null
+                ? Sort.Direction.fromOptionalString(direction).orElseThrow(() ->
+                        new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported direction: " + direction))
+                : DEFAULT_DIRECTIONS.get(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<Criteria> filters = new ArrayList<>();
+        if (category != null) {
+            filters.add(where("category").is(category));
+        }
+        if (creatorId != null) {
+            filters.add(where("creatorId").is(creatorId));
+        }
+        if (cursor != null) {
+            filters.add(after(sort, order, decode(sort, cursor)));
+        }
+
+        TypedAggregation<Quiz> aggregation = Aggregation.newAggregation(Quiz.class,
+                Aggregation.match(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters)),
+                Aggregation.sort(Sort.by(order, sort).and(Sort.by(order, "_id"))),
+                Aggregation.limit(pageSize + 1),
+                Aggregation.project("title", "description", "category", "creatorId", "timeLimit", "createdAt")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("questions").then(Collections.emptyList())))
+                        .as("questionCount"));
+        List<QuizSummaryDTO> items = new ArrayList<>(
+                mongoTemplate.aggregate(aggregation, QuizSummaryDTO.class).getMappedResults());
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            nextCursor = encode(sort, items.get(pageSize - 1));
+        }
+        return new QuizCatalogPageDTO(items, nextCursor);
+    }
+
+    // Rows strictly after the cursor in (field, _id) order; Mongo sorts null and missing values first
+    private static Criteria after(String field, Sort.Direction order, CursorKey key) {
+        if (order.isDescending()) {
+            if (key.value == null) {
+                return new Criteria().andOperator(where(field).is(null), where("_id").lt(key.id));
+            }
+            return new Criteria().orOperator(
+                    where(field).lt(key.value),
+                    new Criteria().andOperator(where(field).is(key.value), where("_id").lt(key.id)),
+                    where(field).is(null));
+        }
+        if (key.value == null) {
+            return new Criteria().orOperator(
+                    new Criteria().andOperator(where(field).is(null), where("_id").gt(key.id)),
+                    where(field).ne(null));
+        }
+        return new Criteria().orOperator(
+                where(field).gt(key.value),
+                new Criteria().andOperator(where(field).is(key.value), where("_id").gt(key.id)));
+    }
+
+    static String encode(String sort, QuizSummaryDTO last) {
+        String value;
+        if ("createdAt".equals(sort)) {
+            value = last.getCreatedAt() != null
+                    ? String.valueOf(last.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                    : "";
+        } else {
+            value = last.getTitle() != null ? "=" + last.getTitle() : "";
+        }
+        String raw = last.getId() + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorKey decode(String sort, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            String id = raw.substring(0, separator);
+            String value = raw.substring(separator + 1);
+            if (value.isEmpty()) {
+                return new CursorKey(id, null);
+            }
+            if ("createdAt".equals(sort)) {
+                return new CursorKey(id, LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault()));
+            }
+            return new CursorKey(id, value.substring(1));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    static final class CursorKey {
+        final String id;
+        final Object value;
+
+        CursorKey(String id, Object value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
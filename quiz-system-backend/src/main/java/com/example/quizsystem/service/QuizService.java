@@ -5,18 +5,32 @@ import com.example.quizsystem.dto.QuizSubmissionDTO;
 import com.example.quizsystem.dto.QuizStatsDTO;
 import com.example.quizsystem.model.QuizAttempt;
 import com.example.quizsystem.model.QuizStats;
-import com.example.quizsystem.model.User;
 import com.example.quizsystem.repository.QuizAttemptRepository;
 import com.example.quizsystem.repository.QuizRepository;
-import com.example.quizsystem.repository.UserRepository;
+import com.example.quizsystem.scoring.AnswerKey;
+import com.example.quizsystem.writebehind.PendingSubmission;
+import com.example.quizsystem.writebehind.SubmissionWriteBehind;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.stream.Collectors;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class QuizService {
 
@@ -26,29 +40,70 @@ public class QuizService {
     private QuizAttemptRepository quizAttemptRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UsernameResolver usernameResolver;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private QuizCache quizCache;
+
+    @Autowired
+    private SubmissionWriteBehind submissionWriteBehind;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Autowired
+    private IdempotencyWindow idempotencyWindow;
 
     @Autowired
     public QuizService(QuizRepository quizRepository) {
         this.quizRepository = quizRepository;
     }
 
-    public List<Quiz> getAllQuizzes() {
-        return quizRepository.findAll();
-    }
-
     public Quiz getQuizById(String id) {
-        Quiz quiz = quizRepository.findById(id)
+        Quiz quiz = findQuiz(id)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
         return quiz;
     }
 
+    public AnswerKey getAnswerKey(String quizId) {
+        return quizCache.getAnswerKey(quizId, quizRepository::findById)
+                .orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + quizId));
+    }
+
+    public PlayView getPlayView(String quizId) {
+        return quizCache.getPlayView(quizId, quizRepository::findById)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+    }
+
+    /**
+     * The quiz's updatedAt, answered from the cache; empty if there is no such quiz.
+     */
+    public Optional<LocalDateTime> getQuizVersion(String quizId) {
+        return findQuiz(quizId).map(QuizService::versionOf);
+    }
+
+    public static LocalDateTime versionOf(Quiz quiz) {
+        return quiz.getUpdatedAt() != null ? quiz.getUpdatedAt() : quiz.getCreatedAt();
+    }
+
+    private Optional<Quiz> findQuiz(String id) {
+        return quizCache.get(id, quizRepository::findById);
+    }
+
     public Quiz createQuiz(Quiz quiz, String creatorId) {
         LocalDateTime now = LocalDateTime.now();
         quiz.setCreatedAt(now);
         quiz.setUpdatedAt(now);
         quiz.setCreatorId(creatorId);
-        return quizRepository.save(quiz);
+        Quiz saved = quizRepository.save(quiz);
+        contentVersions.catalogChanged();
+        return saved;
     }
 
     public Quiz updateQuiz(String id, Quiz updatedQuiz) {
@@ -59,7 +114,10 @@ public class QuizService {
                     existingQuiz.setQuestions(updatedQuiz.getQuestions());
                     existingQuiz.setTimeLimit(updatedQuiz.getTimeLimit());
                     existingQuiz.setUpdatedAt(LocalDateTime.now());
-                    return quizRepository.save(existingQuiz);
+                    Quiz saved = quizRepository.save(existingQuiz);
+                    quizCache.put(saved);
+                    contentVersions.catalogChanged();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
     }
@@ -67,6 +125,8 @@ public class QuizService {
     public boolean deleteQuiz(String id) {
         if (quizRepository.existsById(id)) {
             quizRepository.deleteById(id);
+            quizCache.invalidate(id);
+            contentVersions.catalogChanged();
             return true;
         }
         return false;
@@ -76,31 +136,48 @@ public class QuizService {
         return quizRepository.findByCreatorId(creatorId);
     }
 
-    public List<Quiz> getQuizzesByCategory(String category) {
-        return quizRepository.findByCategory(category);
-    }
-
-    public QuizStatsDTO getQuizStats(String quizId) {
-        Quiz quiz = quizRepository.findById(quizId)
+    public QuizStatsDTO getQuizStats(String quizId, int page, int size) {
+        Quiz quiz = findQuiz(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
 
-        List<QuizAttempt> attempts = quizAttemptRepository.findByQuizId(quizId);
-
         QuizStatsDTO stats = new QuizStatsDTO();
         stats.setQuizId(quizId);
         stats.setQuizTitle(quiz.getTitle());
-        stats.setTotalAttempts(attempts.size());
-
-        if (!attempts.isEmpty()) {
-            double totalScore = attempts.stream().mapToInt(QuizAttempt::getScore).sum();
-            stats.setAverageScore(totalScore / attempts.size());
-
+        stats.setPage(page);
+        stats.setPageSize(size);
+
+        // Score histogram of completed attempts is computed by Mongo; every other figure is derived from it
+        Aggregation histogramQuery = Aggregation.newAggregation(
+                Aggregation.match(where("quizId").is(quizId).and("completedAt").ne(null)),
+                Aggregation.group("score").count().as("count"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (Document bucket : mongoTemplate.aggregate(histogramQuery, QuizAttempt.class, Document.class)) {
+            distribution.put(bucket.get("_id", Number.class).intValue(), bucket.get("count", Number.class).longValue());
+        }
+        stats.setScoreDistribution(distribution);
+
+        long totalAttempts = distribution.values().stream().mapToLong(Long::longValue).sum();
+        stats.setTotalAttempts((int) totalAttempts);
+
+        if (totalAttempts > 0) {
+            long totalScore = distribution.entrySet().stream()
+                    .mapToLong(bucket -> (long) bucket.getKey() * bucket.getValue())
+                    .sum();
+            stats.setAverageScore((double) totalScore / totalAttempts);
+            stats.setLowestScore(distribution.keySet().iterator().next());
+            stats.setHighestScore(distribution.keySet().stream().reduce((first, second) -> second).orElse(0));
+            stats.setMedianScore(percentile(distribution, totalAttempts, 0.5));
+            stats.setP90Score(percentile(distribution, totalAttempts, 0.9));
+
+            List<QuizAttempt> attempts = quizAttemptRepository.findCompletedScoresByQuizId(
+                    quizId, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "score")));
+            Map<String, String> usernames = usernameResolver.resolveUsernames(
+                    attempts.stream().map(QuizAttempt::getUserId).collect(Collectors.toList()));
             List<QuizStatsDTO.AttemptSummary> attemptSummaries = attempts.stream()
                     .map(attempt -> {
                         QuizStatsDTO.AttemptSummary summary = new QuizStatsDTO.AttemptSummary();
-                        User user = userRepository.findById(attempt.getUserId())
-                                .orElse(null);
-                        summary.setUsername(user != null ? user.getUsername() : "Anonymous");
+                        summary.setUsername(usernames.getOrDefault(attempt.getUserId(), "Anonymous"));
                         summary.setScore(attempt.getScore());
                         return summary;
                     })
@@ -111,21 +188,28 @@ public class QuizService {
         return stats;
     }
 
-    public int submitQuiz(QuizSubmissionDTO submission, String userId) {
-        Quiz quiz = quizRepository.findById(submission.getQuizId())
-                .orElseThrow(() -> new RuntimeException("Quiz not found with ID: " + submission.getQuizId()));
-
+    // Nearest-rank percentile over an ascending score histogram
+    static int percentile(Map<Integer, Long> distribution, long total, double fraction) {
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
         int score = 0;
-        List<Quiz.Question> questions = quiz.getQuestions();
-        for (Quiz.Question question : questions) {
-            String questionId = question.getId();
-            Integer userAnswer = submission.getAnswers().get(questionId);
-            System.out.println("Question " + questionId + ": User answer = " + userAnswer + ", Correct answer = " + question.getCorrectOptionIndex());
-            if (userAnswer != null && userAnswer == question.getCorrectOptionIndex()) {
-                score++;
+        for (Map.Entry<Integer, Long> bucket : distribution.entrySet()) {
+            score = bucket.getKey();
+            seen += bucket.getValue();
+            if (seen >= target) {
+                break;
             }
         }
-        System.out.println("Final score: " + score);
+        return score;
+    }
+
+    public int submitQuiz(QuizSubmissionDTO submission, String userId, String idempotencyKey) {
+        return idempotencyWindow.execute("quiz-submit/" + submission.getQuizId(), userId, idempotencyKey,
+                () -> insertSubmission(submission, userId, idempotencyKey));
+    }
+
+    private int insertSubmission(QuizSubmissionDTO submission, String userId, String idempotencyKey) {
+        int score = getAnswerKey(submission.getQuizId()).score(submission.getAnswers());
 
         // Create and save a new QuizAttempt
         QuizAttempt attempt = new QuizAttempt();
@@ -135,8 +219,29 @@ public class QuizService {
         attempt.setScore(score);
         attempt.setStartedAt(LocalDateTime.now()); // Assuming the quiz starts when submitted
         attempt.setCompletedAt(LocalDateTime.now());
+        attempt.setIdempotencyKey(idempotencyKey);
+
+        // Keyed submissions are inserted synchronously so the unique index can turn away a late retry
+        if (idempotencyKey == null && submissionWriteBehind.isEnabled()) {
+            attempt.setId(new ObjectId().toHexString());
+            if (submissionWriteBehind.enqueue(PendingSubmission.Kind.INSERT, attempt)) {
+                leaderboardService.recordCompletionInMemory(attempt);
+                return score;
+            }
+        }
 
-        quizAttemptRepository.save(attempt);
+        QuizAttempt saved;
+        try {
+            saved = quizAttemptRepository.save(attempt);
+        } catch (DuplicateKeyException e) {
+            QuizAttempt original = quizAttemptRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                    .orElseThrow(() -> e);
+            if (!original.getQuizId().equals(submission.getQuizId())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key was already used for another quiz");
+            }
+            return original.getScore();
+        }
+        leaderboardService.recordCompletion(saved);
 
         return score;
     }
@@ -0,0 +1,60 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.LeaderboardEntry;
+import com.example.quizsystem.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Leaderboard reads for the "reactive" profile. Rankings come from the same
+ * in-memory index as LeaderboardService; only username misses reach Mongo,
+ * through the reactive driver.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveLeaderboardService {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private UsernameResolver usernameResolver;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    public Mono<List<LeaderboardEntry>> getGlobalLeaderboard(int offset, int limit) {
+        return withUsernames(leaderboardService.rankedEntries(null, offset, limit));
+    }
+
+    public Mono<LeaderboardEntry> getGlobalRank(String userId) {
+        return withUsername(leaderboardService.rankedEntry(null, userId));
+    }
+
+    public Mono<List<LeaderboardEntry>> getQuizLeaderboard(String quizId, int offset, int limit) {
+        return withUsernames(leaderboardService.rankedEntries(quizId, offset, limit));
+    }
+
+    public Mono<LeaderboardEntry> getQuizRank(String quizId, String userId) {
+        return withUsername(leaderboardService.rankedEntry(quizId, userId));
+    }
+
+    private Mono<LeaderboardEntry> withUsername(LeaderboardEntry entry) {
+        return entry != null ? withUsernames(List.of(entry)).map(entries -> entries.get(0)) : Mono.empty();
+    }
+
+    private Mono<List<LeaderboardEntry>> withUsernames(List<LeaderboardEntry> entries) {
+        return usernameResolver.resolveUsernames(
+                        entries.stream().map(LeaderboardEntry::getUserId).collect(Collectors.toList()),
+                        userRepository::findUsernamesByIdIn)
+                .map(usernames -> {
+                    entries.forEach(entry -> entry.setUsername(usernames.getOrDefault(entry.getUserId(), "Unknown")));
+                    return entries;
+                });
+    }
+}
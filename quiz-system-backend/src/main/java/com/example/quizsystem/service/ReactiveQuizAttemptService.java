@@ -0,0 +1,139 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.repository.ReactiveQuizAttemptRepository;
+import com.example.quizsystem.repository.ReactiveQuizRepository;
+import com.example.quizsystem.scoring.AnswerKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of the start, time and submit paths in
+ * QuizAttemptService, active under the "reactive" profile. The rules live in
+ * AttemptLifecycle; Mongo access goes through the reactive driver and the few
+ * blocking steps (expiring an attempt, the write-behind journal, bumping the
+ * leaderboard snapshot) are moved to boundedElastic.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveQuizAttemptService {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private ReactiveQuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private ReactiveQuizRepository quizRepository;
+
+    @Autowired
+    private QuizCache quizCache;
+
+    @Autowired
+    private AttemptLifecycle attemptLifecycle;
+
+    @Autowired
+    private IdempotencyWindow idempotencyWindow;
+
+    public Mono<QuizAttempt> startQuizAttempt(String userId, String quizId, Integer timeLimit) {
+        return findOrCreateLatestAttempt(userId, quizId, timeLimit)
+                .onErrorResume(DuplicateKeyException.class, e -> findOrCreateLatestAttempt(userId, quizId, timeLimit))
+                .flatMap(attempt -> {
+                    if (!attemptLifecycle.checkPlayable(attempt)) {
+                        return Mono.fromRunnable(() -> attemptLifecycle.expire(attempt))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.error(attemptLifecycle.attemptExpired()));
+                    }
+                    return Mono.just(attemptLifecycle.play(attempt));
+                });
+    }
+
+    private Mono<QuizAttempt> findOrCreateLatestAttempt(String userId, String quizId, Integer timeLimit) {
+        return reactiveMongoTemplate.findAndModify(attemptLifecycle.latestAttempt(userId, quizId),
+                attemptLifecycle.newAttempt(timeLimit),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), QuizAttempt.class);
+    }
+
+    public Mono<Integer> getRemainingTime(String attemptId) {
+        return attemptLifecycle.knownRemainingTime(attemptId)
+                .map(Mono::just)
+                .orElseGet(() -> quizAttemptRepository.findById(attemptId)
+                        .switchIfEmpty(Mono.error(attemptLifecycle.attemptNotFound()))
+                        .map(attemptLifecycle::remainingTime));
+    }
+
+    public Mono<QuizAttempt> submitQuizAttempt(String attemptId, String userId, Map<String, Integer> answers,
+                                               String idempotencyKey) {
+        return idempotencyWindow.executeReactive(attemptLifecycle.submitScope(attemptId), userId, idempotencyKey,
+                () -> completeAttempt(attemptId, userId, answers, idempotencyKey));
+    }
+
+    private Mono<QuizAttempt> completeAttempt(String attemptId, String userId, Map<String, Integer> answers,
+                                              String idempotencyKey) {
+        Mono<QuizAttempt> synchronous = Mono.defer(() -> completeInMongo(attemptId, userId, answers, idempotencyKey));
+        if (!attemptLifecycle.isWriteBehindEnabled()) {
+            return synchronous;
+        }
+        return Mono.fromCallable(() -> attemptLifecycle.submitBehind(attemptId, userId, answers, idempotencyKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(synchronous);
+    }
+
+    private Mono<QuizAttempt> completeInMongo(String attemptId, String userId, Map<String, Integer> answers,
+                                              String idempotencyKey) {
+        Mono<String> quizId = attemptLifecycle.trackedQuizId(attemptId)
+                .map(Mono::just)
+                .orElseGet(() -> quizAttemptRepository.findById(attemptId)
+                        .map(QuizAttempt::getQuizId)
+                        .switchIfEmpty(Mono.error(attemptLifecycle.attemptNotFound())));
+
+        Mono<QuizAttempt> original = idempotencyKey == null
+                ? Mono.empty()
+                : quizAttemptRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                        .map(found -> attemptLifecycle.checkOriginal(found, attemptId));
+
+        return quizId.flatMap(this::getAnswerKey)
+                .flatMap(answerKey -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    return reactiveMongoTemplate.findAndModify(
+                            attemptLifecycle.completableAttempt(attemptId, userId, now),
+                            attemptLifecycle.completion(answers, answerKey.score(answers), now, idempotencyKey),
+                            FindAndModifyOptions.options().returnNew(true),
+                            QuizAttempt.class);
+                })
+                .onErrorMap(DuplicateKeyException.class, e -> attemptLifecycle.idempotencyKeyReused())
+                .flatMap(saved -> Mono.fromCallable(() -> attemptLifecycle.completed(saved))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                // A retry that outlived the in-memory window gets the submission it repeats
+                .switchIfEmpty(original)
+                .switchIfEmpty(Mono.error(attemptLifecycle.noLongerActive()));
+    }
+
+    public Mono<Map<String, Integer>> getCorrectAnswers(String attemptId, String userId) {
+        return quizAttemptRepository.findById(attemptId)
+                .switchIfEmpty(Mono.error(attemptLifecycle.attemptNotFound()))
+                .flatMap(attempt -> {
+                    attemptLifecycle.checkReviewable(attempt, userId);
+                    return getAnswerKey(attempt.getQuizId());
+                })
+                .map(AnswerKey::correctOptions);
+    }
+
+    private Mono<AnswerKey> getAnswerKey(String quizId) {
+        return quizCache.getCachedAnswerKey(quizId)
+                .map(Mono::just)
+                .orElseGet(() -> quizRepository.findById(quizId)
+                        .map(quizCache::put)
+                        .switchIfEmpty(Mono.error(new RuntimeException("Quiz not found with ID: " + quizId))));
+    }
+}
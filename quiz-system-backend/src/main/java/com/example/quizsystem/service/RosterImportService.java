@@ -0,0 +1,322 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.ImportReportDTO;
+import com.example.quizsystem.dto.RegistrationDto;
+import com.example.quizsystem.model.User;
+import com.example.quizsystem.security.PasswordHashingExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Streams a roster (CSV with a username,email,password header, or one
+ * RegistrationDto JSON object per line) into the users collection in
+ * batches: uniqueness is checked with one $in query per field, passwords are
+ * hashed on a few lanes of the hashing pool and each batch is written with an
+ * unordered bulk insert. Rows that fail, including whole batches Mongo could
+ * not take, are reported by line number; the rest are imported.
+ */
+@Service
+public class RosterImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RosterImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${app.rosterImport.batchSize:1000}")
+    private int batchSize;
+
+    @Value("${app.rosterImport.hashConcurrency:0}")
+    private int hashConcurrency;
+
+    public ImportReportDTO importUsers(InputStream body, Format format) throws IOException {
+        ImportReportDTO report = new ImportReportDTO();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                report.setReceived(report.getReceived() + 1);
+                RegistrationDto registration = format == Format.CSV
+                        ? parseCsvRow(line, columns)
+                        : parseJsonRow(line);
+                String problem = validate(registration);
+                if (problem != null) {
+                    reject(report, lineNumber, registration, problem);
+                    continue;
+                }
+                batch.add(new Row(lineNumber, registration));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, report, seenUsernames, seenEmails);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, report, seenUsernames, seenEmails);
+        }
+        logger.info("Roster import finished: {} received, {} imported, {} rejected",
+                report.getReceived(), report.getImported(), report.getErrors().size());
+        return report;
+    }
+
+    private void importBatch(List<Row> batch, ImportReportDTO report, Set<String> seenUsernames, Set<String> seenEmails) {
+        Set<String> takenUsernames;
+        Set<String> takenEmails;
+        try {
+            takenUsernames = existing("username",
+                    batch.stream().map(row -> row.registration.getUsername()).collect(Collectors.toList()));
+            takenEmails = existing("email",
+                    batch.stream().map(row -> row.registration.getEmail()).collect(Collectors.toList()));
+        } catch (DataAccessException e) {
+            logger.error("Roster import could not check {} rows for duplicates", batch.size(), e);
+            batch.forEach(row -> reject(report, row.line, row.registration, "Not imported, retry this row"));
+            return;
+        }
+
+        List<Row> accepted = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            RegistrationDto registration = row.registration;
+            if (takenUsernames.contains(registration.getUsername())) {
+                reject(report, row.line, registration, "Username is already taken");
+            } else if (takenEmails.contains(registration.getEmail())) {
+                reject(report, row.line, registration, "Email is already in use");
+            } else if (seenUsernames.contains(registration.getUsername())) {
+                reject(report, row.line, registration, "Duplicate username in import");
+            } else if (seenEmails.contains(registration.getEmail())) {
+                reject(report, row.line, registration, "Duplicate email in import");
+            } else {
+                seenUsernames.add(registration.getUsername());
+                seenEmails.add(registration.getEmail());
+                accepted.add(row);
+            }
+        }
+
+        List<Row> hashed = hashPasswords(accepted, report);
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulk.insert(hashed.stream().map(row -> row.user).collect(Collectors.toList()));
+        try {
+            report.setImported(report.getImported() + bulk.execute().getInsertedCount());
+        } catch (BulkOperationException e) {
+            // Lost a race with a concurrent signup; the unique indexes reject just those rows
+            report.setImported(report.getImported() + e.getResult().getInsertedCount());
+            for (BulkWriteError error : e.getErrors()) {
+                Row row = hashed.get(error.getIndex());
+                reject(report, row.line, row.registration,
+                        error.getCode() == 11000 ? "Username or email already exists" : error.getMessage());
+            }
+        } catch (DataAccessException e) {
+            // Some of the batch may have landed; a retry reports those as already taken
+            logger.error("Roster import could not write a batch of {} users", hashed.size(), e);
+            hashed.forEach(row -> reject(report, row.line, row.registration, "Import not confirmed, retry this row"));
+        }
+    }
+
+    /**
+     * Hashes on fewer lanes than the hashing pool has threads, so sign-ins
+     * keep a share of it while a large roster imports. Rows the pool refuses
+     * are reported instead of failing the import.
+     */
+    private List<Row> hashPasswords(List<Row> accepted, ImportReportDTO report) {
+        int lanes = Math.min(hashLanes(), accepted.size());
+        if (lanes == 0) {
+            return accepted;
+        }
+        Map<Row, String> failures = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int lane = 0; lane < lanes; lane++) {
+                int first = lane;
+                executor.execute(() -> {
+                    for (int i = first; i < accepted.size(); i += lanes) {
+                        Row row = accepted.get(i);
+                        try {
+                            row.user = new User(row.registration.getUsername(), row.registration.getEmail(),
+                                    passwordEncoder.encode(row.registration.getPassword()));
+                        } catch (RejectedExecutionException e) {
+                            failures.put(row, "Password hashing is busy, retry this row");
+                        } catch (RuntimeException e) {
+                            failures.put(row, "Password could not be hashed");
+                        }
+                    }
+                });
+            }
+        }
+        List<Row> hashed = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            if (failures.containsKey(row)) {
+                reject(report, row.line, row.registration, failures.get(row));
+            } else {
+                hashed.add(row);
+            }
+        }
+        return hashed;
+    }
+
+    private int hashLanes() {
+        int poolThreads = passwordHashingExecutor.getThreads();
+        int lanes = hashConcurrency > 0 ? hashConcurrency : poolThreads / 2;
+        return Math.max(1, Math.min(lanes, poolThreads - 1));
+    }
+
+    private Set<String> existing(String field, List<String> values) {
+        Query existing = query(where(field).in(values));
+        existing.fields().include(field);
+        return mongoTemplate.find(existing, User.class).stream()
+                .map(user -> "username".equals(field) ? user.getUsername() : user.getEmail())
+                .collect(Collectors.toSet());
+    }
+
+    private static String validate(RegistrationDto registration) {
+        if (registration == null) {
+            return "Malformed row";
+        }
+        if (!StringUtils.hasText(registration.getUsername())) {
+            return "Username is required";
+        }
+        if (!StringUtils.hasText(registration.getEmail()) || !registration.getEmail().contains("@")) {
+            return "A valid email is required";
+        }
+        if (!StringUtils.hasText(registration.getPassword())) {
+            return "Password is required";
+        }
+        return null;
+    }
+
+    private static void reject(ImportReportDTO report, int line, RegistrationDto registration, String message) {
+        report.getErrors().add(new ImportReportDTO.RowError(line,
+                registration != null ? registration.getUsername() : null, message));
+    }
+
+    private RegistrationDto parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, RegistrationDto.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        return columns;
+    }
+
+    private static RegistrationDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < columns.size()) {
+            return null;
+        }
+        RegistrationDto registration = new RegistrationDto();
+        registration.setUsername(fields.get(columns.get("username")).trim());
+        registration.setEmail(fields.get(columns.get("email")).trim());
+        registration.setPassword(fields.get(columns.get("password")));
+        return registration;
+    }
+
+    // Comma-separated fields, with "..." quoting and "" as an escaped quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Row {
+        final int line;
+        final RegistrationDto registration;
+        User user;
+
+        Row(int line, RegistrationDto registration) {
+            this.line = line;
+            this.registration = registration;
+        }
+    }
+}
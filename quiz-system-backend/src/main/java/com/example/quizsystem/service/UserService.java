@@ -2,25 +2,42 @@ package com.example.quizsystem.service;
 
 import com.example.quizsystem.model.User;
 import com.example.quizsystem.repository.UserRepository;
+import com.example.quizsystem.security.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
 
+    @Autowired
+    private UsernameResolver usernameResolver;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     public UserService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * All users as an open cursor, without password hashes; the caller must close it.
+     */
+    public Stream<User> streamAllUsers() {
+        Query allUsers = new Query();
+        allUsers.fields().exclude("password");
+        return mongoTemplate.stream(allUsers, User.class);
     }
 
     public Optional<User> getUserById(String id) {
@@ -28,6 +45,8 @@ public class UserService {
     }
 
     public User createUser(User user) {
+        // Roles are granted out of band, never through the public API
+        user.setRoles(null);
         LocalDateTime now = LocalDateTime.now();
         user.setCreatedAt(now);
         user.setUpdatedAt(now);
@@ -40,13 +59,18 @@ public class UserService {
             existingUser.setEmail(updatedUser.getEmail());
             existingUser.setPassword(updatedUser.getPassword());
             existingUser.setUpdatedAt(LocalDateTime.now());
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            usernameResolver.evict(id);
+            tokenRevocationService.revokeAll(id);
+            return saved;
         });
     }
 
     public boolean deleteUser(String id) {
         if (userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            usernameResolver.evict(id);
+            tokenRevocationService.revokeAll(id);
             return true;
         }
         return false;
@@ -0,0 +1,104 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.User;
+import com.example.quizsystem.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Joins usernames onto attempts and leaderboard rows. Misses are fetched in a
+ * single id+username projection query and kept in a bounded LRU cache that
+ * UserService invalidates on update and delete.
+ */
+@Service
+public class UsernameResolver {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContentVersions contentVersions;
+
+    private final Map<String, String> cache;
+
+    public UsernameResolver(@Value("${app.usernameCache.maxSize:10000}") int maxSize) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public Map<String, String> resolveUsernames(Collection<String> userIds) {
+        Map<String, String> usernames = new HashMap<>();
+        List<String> missing = lookupCached(userIds, usernames);
+        if (!missing.isEmpty()) {
+            cacheAll(userRepository.findUsernamesByIdIn(missing), usernames);
+        }
+        return usernames;
+    }
+
+    /**
+     * Non-blocking variant for the reactive endpoints; misses are fetched with
+     * the given loader instead of the blocking repository.
+     */
+    public Mono<Map<String, String>> resolveUsernames(Collection<String> userIds,
+                                                      Function<List<String>, Flux<User>> loader) {
+        Map<String, String> usernames = new HashMap<>();
+        List<String> missing = lookupCached(userIds, usernames);
+        if (missing.isEmpty()) {
+            return Mono.just(usernames);
+        }
+        return loader.apply(missing).collectList().map(users -> {
+            cacheAll(users, usernames);
+            return usernames;
+        });
+    }
+
+    private List<String> lookupCached(Collection<String> userIds, Map<String, String> usernames) {
+        List<String> missing = new ArrayList<>();
+        synchronized (cache) {
+            for (String userId : new LinkedHashSet<>(userIds)) {
+                if (userId == null) {
+                    continue;
+                }
+                String username = cache.get(userId);
+                if (username != null) {
+                    usernames.put(userId, username);
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private void cacheAll(List<User> users, Map<String, String> usernames) {
+        synchronized (cache) {
+            for (User user : users) {
+                cache.put(user.getId(), user.getUsername());
+                usernames.put(user.getId(), user.getUsername());
+            }
+        }
+    }
+
+    public void evict(String userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+        contentVersions.usersChanged();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.quizsystem.writebehind;
+
+import com.example.quizsystem.model.QuizAttempt;
+
+/**
+ * An acknowledged submission that has not been written to quiz_attempts yet.
+ * INSERT carries a complete attempt with a pre-assigned id; COMPLETE carries
+ * the fields that finish an already started attempt.
+ */
+public class PendingSubmission {
+
+    public enum Kind { INSERT, COMPLETE }
+
+    private long seq;
+    private Kind kind;
+    private QuizAttempt attempt;
+
+    public PendingSubmission() {
+    }
+
+    public PendingSubmission(Kind kind, QuizAttempt attempt) {
+        this.kind = kind;
+        this.attempt = attempt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public QuizAttempt getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(QuizAttempt attempt) {
+        this.attempt = attempt;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.quizsystem.writebehind;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.model.UserScoreTotal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Local append-only log of submissions that were acknowledged but not yet
+ * flushed. Each line is a PendingSubmission or a checkpoint; the file is
+ * truncated whenever everything appended has been flushed. Unflushed entries
+ * found at startup are written to quiz_attempts before anything else reads it.
+ */
+@Component
+public class SubmissionJournal {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.submissions.writeBehind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.submissions.writeBehind.journalPath:data/submissions.journal}")
+    private String journalPath;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Path path;
+    private BufferedWriter writer;
+    private long lastSeq;
+    private long flushedSeq;
+
+    @PostConstruct
+    public void open() throws IOException {
+        path = Paths.get(journalPath);
+        if (Files.exists(path)) {
+            replay();
+        }
+        if (enabled) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Assigns the next sequence number, makes the submission durable and hands
+     * it to enqueue, which must not block: the caller reserves queue capacity
+     * before calling. The lock covers only the sequence, the file write and
+     * the hand-off, which keeps the queue in sequence order for checkpoints.
+     */
+    public void append(PendingSubmission submission, Consumer<PendingSubmission> enqueue) {
+        lock.lock();
+        try {
+            submission.setSeq(lastSeq + 1);
+            writer.write(objectMapper.writeValueAsString(submission));
+            writer.newLine();
+            writer.flush();
+            lastSeq = submission.getSeq();
+            enqueue.accept(submission);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to submission journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void markFlushed(long seq) {
+        lock.lock();
+        try {
+            flushedSeq = Math.max(flushedSeq, seq);
+            if (flushedSeq == lastSeq) {
+                writer.close();
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            } else {
+                writer.write(objectMapper.createObjectNode().put("checkpoint", flushedSeq).toString());
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not checkpoint submission journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the batch and returns the submissions Mongo refused with a
+     * duplicate key, plus completions whose attempt was no longer active.
+     * Neither is fixed by a retry. Any other failure is thrown.
+     */
+    public List<PendingSubmission> writeToAttempts(List<PendingSubmission> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuizAttempt.class);
+        for (PendingSubmission submission : batch) {
+            QuizAttempt attempt = submission.getAttempt();
+            if (submission.getKind() == PendingSubmission.Kind.INSERT) {
+                // Replace-by-id keeps replays after a crash idempotent
+                bulk.replaceOne(query(where("_id").is(attempt.getId())), attempt, FindAndReplaceOptions.options().upsert());
+            } else {
+                Update completion = new Update()
+                        .set("answers", attempt.getAnswers())
+                        .set("score", attempt.getScore())
+                        .set("isActive", false)
+                        .set("completedAt", attempt.getCompletedAt());
+                if (attempt.getIdempotencyKey() != null) {
+                    completion.set("idempotencyKey", attempt.getIdempotencyKey());
+                }
+                bulk.updateOne(query(where("_id").is(attempt.getId()).and("isActive").is(true)), completion);
+            }
+        }
+        List<PendingSubmission> refused = new ArrayList<>();
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // A reused Idempotency-Key would fail the same way on every retry, so it must not stall the flusher
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw e;
+            }
+            // One operation per submission, so the error index is the batch index
+            e.getErrors().forEach(error -> refused.add(batch.get(error.getIndex())));
+            result = e.getResult();
+        }
+        // Every insert matches or upserts, so a shortfall means some completion found its attempt closed
+        if (result.getMatchedCount() + result.getUpserts().size() < batch.size() - refused.size()) {
+            refused.addAll(unappliedCompletions(batch, refused));
+        }
+        return refused;
+    }
+
+    /**
+     * A completion that matched nothing was either applied by an earlier
+     * flush of the same entry (a replay), or lost to expiry or another submit.
+     * Only the first still carries our completedAt.
+     */
+    private List<PendingSubmission> unappliedCompletions(List<PendingSubmission> batch, List<PendingSubmission> refused) {
+        Map<String, PendingSubmission> completions = batch.stream()
+                .filter(submission -> submission.getKind() == PendingSubmission.Kind.COMPLETE)
+                .filter(submission -> !refused.contains(submission))
+                .collect(Collectors.toMap(submission -> submission.getAttempt().getId(), Function.identity(),
+                        (first, second) -> first, LinkedHashMap::new));
+        Query stored = query(where("_id").in(completions.keySet()));
+        stored.fields().include("completedAt", "isActive");
+        Map<String, QuizAttempt> storedById = mongoTemplate.find(stored, QuizAttempt.class).stream()
+                .collect(Collectors.toMap(QuizAttempt::getId, Function.identity()));
+        return completions.values().stream()
+                .filter(submission -> !isApplied(submission.getAttempt(), storedById.get(submission.getAttempt().getId())))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isApplied(QuizAttempt ours, QuizAttempt stored) {
+        // Mongo keeps dates to the millisecond
+        return stored != null && !stored.isActive() && stored.getCompletedAt() != null
+                && ours.getCompletedAt() != null
+                && stored.getCompletedAt().truncatedTo(ChronoUnit.MILLIS)
+                        .equals(ours.getCompletedAt().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private void replay() throws IOException {
+        List<PendingSubmission> entries = new ArrayList<>();
+        long checkpoint = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            if (node.has("checkpoint")) {
+                checkpoint = Math.max(checkpoint, node.get("checkpoint").asLong());
+            } else {
+                entries.add(objectMapper.treeToValue(node, PendingSubmission.class));
+            }
+        }
+        long flushedUpTo = checkpoint;
+        entries.removeIf(entry -> entry.getSeq() <= flushedUpTo);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        List<PendingSubmission> rejected = writeToAttempts(entries);
+        rejected.forEach(entry -> logger.error("Replayed submission for attempt {} was rejected",
+                entry.getAttempt().getId()));
+        // Leaderboard increments for these may or may not have landed; let the snapshot rebuild from attempts
+        mongoTemplate.dropCollection(UserScoreTotal.class);
+        logger.warn("Replayed {} unflushed submissions from {}", entries.size(), path);
+    }
+}
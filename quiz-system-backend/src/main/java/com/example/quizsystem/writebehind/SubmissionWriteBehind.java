@@ -0,0 +1,245 @@
+package com.example.quizsystem.writebehind;
+
+import com.example.quizsystem.event.SubmissionRejectedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.service.LeaderboardService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind pipeline for submissions. Callers score and
+ * acknowledge immediately; the submission is journaled, queued and written to
+ * quiz_attempts by a single flusher thread in unordered bulk batches. When the
+ * pipeline is disabled or the queue stays full past the offer timeout,
+ * callers fall back to their synchronous write, as they do when the journal
+ * cannot be written. A failing batch never stops the flusher thread.
+ */
+@Service
+public class SubmissionWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionWriteBehind.class);
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    @Autowired
+    private SubmissionJournal journal;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.submissions.writeBehind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.submissions.writeBehind.batchSize:500}")
+    private int batchSize;
+
+    @Value("${app.submissions.writeBehind.lingerMs:50}")
+    private long lingerMs;
+
+    @Value("${app.submissions.writeBehind.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.submissions.writeBehind.offerTimeoutMs:100}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<PendingSubmission> queue;
+    // One permit per free queue slot, taken before journaling and returned when the flusher takes the entry
+    private Semaphore capacity;
+    private final Set<String> pendingAttemptIds = ConcurrentHashMap.newKeySet();
+    private Timer flushTimer;
+    private Counter fallbacks;
+    private Counter rejections;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        capacity = new Semaphore(queueCapacity);
+        Gauge.builder("submissions.writebehind.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        flushTimer = meterRegistry.timer("submissions.writebehind.flush");
+        fallbacks = meterRegistry.counter("submissions.writebehind.fallbacks");
+        rejections = meterRegistry.counter("submissions.writebehind.rejections");
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "submission-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Submission write-behind enabled (batch {}, linger {} ms)", batchSize, lingerMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves an attempt for a write-behind completion. Returns false if a
+     * completion for it is already queued, i.e. this is a duplicate submit.
+     */
+    public boolean claim(String attemptId) {
+        return pendingAttemptIds.add(attemptId);
+    }
+
+    public void release(String attemptId) {
+        pendingAttemptIds.remove(attemptId);
+    }
+
+    public boolean isPending(String attemptId) {
+        return pendingAttemptIds.contains(attemptId);
+    }
+
+    public boolean enqueue(PendingSubmission.Kind kind, QuizAttempt attempt) {
+        if (!enabled) {
+            return false;
+        }
+        // Wait for room outside the journal lock, so a full queue does not hold up other submitters or checkpoints
+        boolean reserved;
+        try {
+            reserved = capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reserved = false;
+        }
+        if (!reserved) {
+            fallbacks.increment();
+            return false;
+        }
+        try {
+            journal.append(new PendingSubmission(kind, attempt), queue::add);
+        } catch (RuntimeException e) {
+            // Not durable, so not acknowledged here; the caller's synchronous write takes it instead
+            capacity.release();
+            fallbacks.increment();
+            logger.error("Could not journal a submission for attempt {}, falling back to a direct write",
+                    attempt.getId(), e);
+            return false;
+        }
+        return true;
+    }
+
+    private void runFlusher() {
+        while (running || !queue.isEmpty()) {
+            List<PendingSubmission> batch = new ArrayList<>(batchSize);
+            try {
+                PendingSubmission first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long waitNanos = lingerUntil - System.nanoTime();
+                    PendingSubmission next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (batch.isEmpty()) {
+                    queue.drainTo(batch, batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                capacity.release(batch.size());
+                try {
+                    flush(batch);
+                } catch (RuntimeException e) {
+                    // This is the only flusher; if it died, acknowledged submissions would wait for a restart
+                    logger.error("Write-behind flush of {} submissions failed", batch.size(), e);
+                }
+            }
+        }
+    }
+
+    private void flush(List<PendingSubmission> batch) {
+        // Retries reuse the id, so totals that already took this batch are not incremented again
+        String batchId = UUID.randomUUID().toString();
+        List<PendingSubmission> rejected;
+        while (true) {
+            try {
+                rejected = flushTimer.record(() -> {
+                    List<PendingSubmission> refused = journal.writeToAttempts(batch);
+                    leaderboardService.persistCompletions(batch.stream()
+                            .filter(submission -> !refused.contains(submission))
+                            .map(PendingSubmission::getAttempt)
+                            .collect(Collectors.toList()), batchId);
+                    return refused;
+                });
+                break;
+            } catch (RuntimeException e) {
+                // Keep the batch until Mongo takes it; the journal still covers it if we crash meanwhile
+                logger.error("Flushing {} submissions failed, retrying", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        batch.forEach(submission -> pendingAttemptIds.remove(submission.getAttempt().getId()));
+        try {
+            journal.markFlushed(batch.get(batch.size() - 1).getSeq());
+        } catch (RuntimeException e) {
+            // Without the checkpoint a restart replays this batch, and the replay is idempotent
+            logger.warn("Could not checkpoint the submission journal after a flush", e);
+        }
+        for (PendingSubmission submission : rejected) {
+            try {
+                reject(submission);
+            } catch (RuntimeException e) {
+                logger.error("Rolling back rejected submission for attempt {} failed",
+                        submission.getAttempt().getId(), e);
+            }
+        }
+    }
+
+    // The submitter was already told it succeeded, so undo its leaderboard credit and make the failure visible
+    private void reject(PendingSubmission submission) {
+        QuizAttempt attempt = submission.getAttempt();
+        rejections.increment();
+        logger.error("{} of attempt {} for user {} was not applied by Mongo and has been rolled back",
+                submission.getKind(), attempt.getId(), attempt.getUserId());
+        leaderboardService.revokeCompletionInMemory(attempt);
+        eventPublisher.publishEvent(new SubmissionRejectedEvent(submission));
+    }
+}
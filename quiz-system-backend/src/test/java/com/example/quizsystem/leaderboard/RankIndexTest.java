@@ -0,0 +1,104 @@
+package com.example.quizsystem.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void ranksByScoreThenEarliestCompletionThenUserId() {
+        RankIndex<String, Standing> index = new RankIndex<>(Standing.RANKING);
+        index.put("carol", new Standing("carol", 10, 1, T0.plusMinutes(5)));
+        index.put("alice", new Standing("alice", 10, 1, T0));
+        index.put("bob", new Standing("bob", 20, 2, T0.plusMinutes(9)));
+        index.put("dave", new Standing("dave", 10, 1, T0));
+
+        assertEquals(List.of("bob", "alice", "dave", "carol"), userIds(index.range(0, 10)));
+        assertEquals(0, index.rankOf("bob"));
+        assertEquals(3, index.rankOf("carol"));
+        assertEquals(-1, index.rankOf("nobody"));
+    }
+
+    @Test
+    void updateMovesAnEntryAndNullRemovesIt() {
+        RankIndex<String, Standing> index = new RankIndex<>(Standing.RANKING);
+        index.put("alice", new Standing("alice", 5, 1, T0));
+        index.put("bob", new Standing("bob", 8, 1, T0));
+
+        index.update("alice", previous -> previous.plus(10, T0.plusMinutes(1)));
+        assertEquals(0, index.rankOf("alice"));
+        assertEquals(15, index.get("alice").getTotalScore());
+
+        index.update("bob", previous -> null);
+        assertNull(index.get("bob"));
+        assertEquals(-1, index.rankOf("bob"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rangeClampsOffsetAndLimit() {
+        RankIndex<Integer, Integer> index = new RankIndex<>(Comparator.naturalOrder());
+        for (int i = 0; i < 5; i++) {
+            index.put(i, i);
+        }
+
+        assertEquals(List.of(3, 4), index.range(3, 10));
+        assertEquals(List.of(0, 1), index.range(-2, 2));
+        assertTrue(index.range(5, 3).isEmpty());
+        assertTrue(index.range(0, 0).isEmpty());
+    }
+
+    @Test
+    void matchesSortedOrderAfterRandomUpdates() {
+        RankIndex<Integer, Integer> index = new RankIndex<>(Comparator.naturalOrder());
+        Integer[] values = new Integer[200];
+        Random random = new Random(42);
+        for (int step = 0; step < 5_000; step++) {
+            int key = random.nextInt(values.length);
+            // Values stay unique so the order is total
+            Integer value = random.nextInt(4) == 0 ? null : random.nextInt(1_000_000) * values.length + key;
+            index.update(key, previous -> value);
+            values[key] = value;
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (Integer value : values) {
+            if (value != null) {
+                expected.add(value);
+            }
+        }
+        expected.sort(Comparator.naturalOrder());
+        assertEquals(expected, index.range(0, values.length));
+        for (int key = 0; key < values.length; key++) {
+            assertEquals(values[key] == null ? -1 : expected.indexOf(values[key]), index.rankOf(key));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheIndex() {
+        RankIndex<String, Standing> index = new RankIndex<>(Standing.RANKING);
+        index.put("alice", Standing.empty("alice"));
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.get("alice"));
+        assertTrue(index.range(0, 10).isEmpty());
+    }
+
+    private static List<String> userIds(List<Standing> standings) {
+        return standings.stream().map(Standing::getUserId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.quizsystem.scoring;
+
+import com.example.quizsystem.model.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnswerKeyTest {
+
+    @Test
+    void scoresOnlyCorrectAnswersToKnownQuestions() {
+        AnswerKey key = AnswerKey.compile(quiz(question("q1", 0), question("q2", 2), question("q3", 1)));
+
+        assertEquals(2, key.score(Map.of("q1", 0, "q2", 2, "q3", 0)));
+        assertEquals(0, key.score(Map.of("unknown", 0)));
+        assertEquals(3, key.getQuestionCount());
+    }
+
+    @Test
+    void scoresNothingForMissingAnswers() {
+        AnswerKey key = AnswerKey.compile(quiz(question("q1", 0)));
+
+        assertEquals(0, key.score(null));
+        assertEquals(0, key.score(Map.of()));
+    }
+
+    @Test
+    void fallsBackToTextHashForQuestionsWithoutId() {
+        Quiz.Question unnamed = question(null, 1);
+        unnamed.setText("What is 2 + 2?");
+        AnswerKey key = AnswerKey.compile(quiz(unnamed));
+
+        String fallbackId = String.valueOf("What is 2 + 2?".hashCode());
+        assertEquals(0, key.indexOf(fallbackId));
+        assertEquals(1, key.score(Map.of(fallbackId, 1)));
+    }
+
+    @Test
+    void indexesQuestionsDenselyAndRejectsUnknownIds() {
+        AnswerKey key = AnswerKey.compile(quiz(question("a", 0), question("b", 0)));
+
+        assertEquals(0, key.indexOf("a"));
+        assertEquals(1, key.indexOf("b"));
+        assertEquals(-1, key.indexOf("c"));
+    }
+
+    @Test
+    void compilesQuizWithoutQuestions() {
+        Quiz quiz = new Quiz();
+        quiz.setId("empty");
+
+        AnswerKey key = AnswerKey.compile(quiz);
+
+        assertEquals(0, key.getQuestionCount());
+        assertEquals(0, key.score(Map.of("q1", 0)));
+        assertEquals("empty", key.getQuizId());
+    }
+
+    private static Quiz quiz(Quiz.Question... questions) {
+        Quiz quiz = new Quiz();
+        quiz.setId("quiz");
+        quiz.setQuestions(new ArrayList<>(List.of(questions)));
+        return quiz;
+    }
+
+    private static Quiz.Question question(String id, int correctOptionIndex) {
+        Quiz.Question question = new Quiz.Question();
+        question.setId(id);
+        question.setText("Question " + id);
+        question.setCorrectOptionIndex(correctOptionIndex);
+        return question;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.writebehind.SubmissionWriteBehind;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AttemptExpiryServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final SubmissionWriteBehind submissionWriteBehind = mock(SubmissionWriteBehind.class);
+    private final AttemptExpiryService service = new AttemptExpiryService();
+
+    @BeforeEach
+    void wireService() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "leaderboardService", leaderboardService);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "submissionWriteBehind", submissionWriteBehind);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+    }
+
+    @Test
+    void sweepExpiresOnlyDueAttempts() {
+        service.track(attempt("a1", LocalDateTime.now().minusSeconds(1)));
+        service.track(attempt("a2", LocalDateTime.now().plusMinutes(5)));
+        givenModified(1);
+
+        service.sweep();
+
+        verify(leaderboardService).recordCompletion(argThat(attempt -> "a1".equals(attempt.getId())));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(QuizAttempt.class));
+        assertTrue(service.getDeadline("a1").isEmpty());
+        assertTrue(service.getDeadline("a2").isPresent());
+    }
+
+    @Test
+    void attemptSubmittedDuringTheSweepIsNotCreditedAsExpired() {
+        service.track(attempt("a1", LocalDateTime.now().minusSeconds(2)));
+        service.track(attempt("a2", LocalDateTime.now().minusSeconds(1)));
+        // a2's submit won the race, so the updateMany only closed a1
+        givenModified(1);
+        QuizAttempt closedBySweep = new QuizAttempt();
+        closedBySweep.setId("a1");
+        when(mongoTemplate.find(any(Query.class), eq(QuizAttempt.class))).thenReturn(List.of(closedBySweep));
+
+        service.sweep();
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(QuizAttempt.class));
+        ArgumentCaptor<Query> reRead = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(reRead.capture(), eq(QuizAttempt.class));
+        assertEquals(update.getValue().getUpdateObject().get("$set", Document.class).get("completedAt"),
+                reRead.getValue().getQueryObject().get("completedAt"));
+
+        verify(leaderboardService).recordCompletion(argThat(attempt -> "a1".equals(attempt.getId())));
+        verify(leaderboardService, never()).recordCompletion(argThat(attempt -> "a2".equals(attempt.getId())));
+        assertTrue(service.getDeadline("a1").isEmpty());
+        assertTrue(service.getDeadline("a2").isEmpty());
+    }
+
+    @Test
+    void completionQueuedForWriteBehindIsLeftAlone() {
+        service.track(attempt("a1", LocalDateTime.now().minusSeconds(1)));
+        when(submissionWriteBehind.isPending("a1")).thenReturn(true);
+
+        service.sweep();
+
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(QuizAttempt.class));
+        verify(leaderboardService, never()).recordCompletion(any());
+    }
+
+    @Test
+    void failedSweepKeepsTheAttemptsForTheNextOne() {
+        service.track(attempt("a1", LocalDateTime.now().minusSeconds(1)));
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(QuizAttempt.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        service.sweep();
+
+        assertTrue(service.getDeadline("a1").isPresent());
+        verify(leaderboardService, never()).recordCompletion(any());
+    }
+
+    private void givenModified(long modified) {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(QuizAttempt.class)))
+                .thenReturn(UpdateResult.acknowledged(modified, modified, null));
+    }
+
+    private static QuizAttempt attempt(String attemptId, LocalDateTime expiresAt) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(attemptId);
+        attempt.setUserId("u1");
+        attempt.setQuizId("q1");
+        attempt.setExpiresAt(expiresAt);
+        attempt.setActive(true);
+        return attempt;
+    }
+}
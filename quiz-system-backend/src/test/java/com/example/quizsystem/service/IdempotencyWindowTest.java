@@ -0,0 +1,191 @@
+package com.example.quizsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyWindowTest {
+
+    private final IdempotencyWindow window = new IdempotencyWindow(100, 600, 2_000);
+
+    @Test
+    void retryGetsTheOriginalResultWithoutRunningAgain() {
+        AtomicInteger runs = new AtomicInteger();
+
+        int first = window.execute("quiz-submit/q1", "u1", "k1", runs::incrementAndGet);
+        int retry = window.execute("quiz-submit/q1", "u1", "k1", runs::incrementAndGet);
+
+        assertEquals(1, first);
+        assertEquals(1, retry);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keysAreScopedByScopeAndUser() {
+        AtomicInteger runs = new AtomicInteger();
+
+        window.execute("quiz-submit/q1", "u1", "k1", runs::incrementAndGet);
+        window.execute("quiz-submit/q2", "u1", "k1", runs::incrementAndGet);
+        window.execute("quiz-submit/q1", "u2", "k1", runs::incrementAndGet);
+
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRun() {
+        AtomicInteger runs = new AtomicInteger();
+
+        window.execute("quiz-submit/q1", "u1", null, runs::incrementAndGet);
+        window.execute("quiz-submit/q1", "u1", null, runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void failedOperationIsForgottenSoARetryRuns() {
+        assertThrows(IllegalStateException.class, () -> window.execute("s", "u1", "k1", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", window.execute("s", "u1", "k1", () -> "ok"));
+    }
+
+    @Test
+    void rejectsBlankOrOverlongKeys() {
+        ResponseStatusException blank = assertThrows(ResponseStatusException.class,
+                () -> window.execute("s", "u1", " ", () -> "ok"));
+        ResponseStatusException overlong = assertThrows(ResponseStatusException.class,
+                () -> window.execute("s", "u1", "k".repeat(129), () -> "ok"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, overlong.getStatusCode());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheOriginal() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() -> window.execute("s", "u1", "k1", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> window.execute("s", "u1", "k1", () -> {
+            runs.incrementAndGet();
+            return "rerun";
+        }));
+        release.countDown();
+
+        assertEquals("done", original.get(5, TimeUnit.SECONDS));
+        assertEquals("done", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void waitingDuplicateIsReleasedWhenTheOriginalFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() -> window.execute("s", "u1", "k1", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalArgumentException("invalid submission");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(
+                () -> window.execute("s", "u1", "k1", () -> "rerun"));
+        Thread.sleep(100);
+        release.countDown();
+
+        // A duplicate that was waiting gets the original's failure; a later one runs again
+        try {
+            assertEquals("rerun", duplicate.get(5, TimeUnit.SECONDS));
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void waitingDuplicateGivesUpWithConflict() throws Exception {
+        IdempotencyWindow impatient = new IdempotencyWindow(100, 600, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() -> impatient.execute("s", "u1", "k1", () -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            ResponseStatusException conflict = assertThrows(ResponseStatusException.class,
+                    () -> impatient.execute("s", "u1", "k1", () -> "rerun"));
+            assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        } finally {
+            release.countDown();
+        }
+        assertEquals("done", original.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void expiredAndEvictedEntriesRunAgain() {
+        IdempotencyWindow expiring = new IdempotencyWindow(100, 0, 2_000);
+        IdempotencyWindow tiny = new IdempotencyWindow(1, 600, 2_000);
+        AtomicInteger runs = new AtomicInteger();
+
+        expiring.execute("s", "u1", "k1", runs::incrementAndGet);
+        expiring.execute("s", "u1", "k1", runs::incrementAndGet);
+        tiny.execute("s", "u1", "k1", runs::incrementAndGet);
+        tiny.execute("s", "u1", "k2", runs::incrementAndGet);
+        tiny.execute("s", "u1", "k1", runs::incrementAndGet);
+
+        assertEquals(5, runs.get());
+    }
+
+    @Test
+    void reactiveRetryGetsTheOriginalResult() {
+        AtomicInteger runs = new AtomicInteger();
+
+        Integer first = window.executeReactive("s", "u1", "k1",
+                () -> Mono.fromCallable(runs::incrementAndGet)).block();
+        Integer retry = window.executeReactive("s", "u1", "k1",
+                () -> Mono.fromCallable(runs::incrementAndGet)).block();
+
+        assertEquals(1, first);
+        assertEquals(1, retry);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void reactiveFailureIsForgotten() {
+        assertThrows(IllegalStateException.class, () -> window.executeReactive("s", "u1", "k1",
+                () -> Mono.<String>error(new IllegalStateException("boom"))).block());
+
+        assertEquals("ok", window.executeReactive("s", "u1", "k1", () -> Mono.just("ok")).block());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.Quiz;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.repository.QuizAttemptRepository;
+import com.example.quizsystem.scoring.AnswerKey;
+import com.example.quizsystem.writebehind.SubmissionWriteBehind;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuizAttemptServiceTest {
+
+    private static final Map<String, Integer> ANSWERS = Map.of("question", 1);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final QuizAttemptRepository quizAttemptRepository = mock(QuizAttemptRepository.class);
+    private final QuizService quizService = mock(QuizService.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final AttemptExpiryService attemptExpiryService = mock(AttemptExpiryService.class);
+    private final Map<String, QuizAttempt> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger startCalls = new AtomicInteger();
+    private volatile CyclicBarrier startRace;
+
+    @BeforeEach
+    void emulateConditionalUpdates() {
+        Quiz.Question question = new Quiz.Question();
+        question.setId("question");
+        question.setOptions(List.of("a", "b"));
+        question.setCorrectOptionIndex(1);
+        Quiz quiz = new Quiz();
+        quiz.setId("q1");
+        quiz.setQuestions(List.of(question));
+        when(quizService.getAnswerKey("q1")).thenReturn(AnswerKey.compile(quiz));
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(QuizAttempt.class)))
+                .thenAnswer(invocation -> invocation.<FindAndModifyOptions>getArgument(2).isUpsert()
+                        ? startOrResume(invocation.getArgument(0), invocation.getArgument(1))
+                        : completeIfMatching(invocation.getArgument(0), invocation.getArgument(1)));
+        when(quizAttemptRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        when(quizAttemptRepository.findByUserIdAndIdempotencyKey(any(), any()))
+                .thenAnswer(invocation -> stored.values().stream()
+                        .filter(attempt -> attempt.getUserId().equals(invocation.getArgument(0))
+                                && invocation.getArgument(1).equals(attempt.getIdempotencyKey()))
+                        .findFirst());
+    }
+
+    @Test
+    void submitPastTheDeadlineMatchesNothingEvenBeforeTheSweep() {
+        store("a1", "u1", LocalDateTime.now().minusSeconds(1));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service().submitQuizAttempt("a1", "u1", ANSWERS, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertTrue(stored.get("a1").isActive());
+        verify(leaderboardService, never()).recordCompletion(any());
+    }
+
+    @Test
+    void submitAfterTheSweepClosedTheAttemptIsNotCredited() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5)).setActive(false);
+
+        assertThrows(ResponseStatusException.class, () -> service().submitQuizAttempt("a1", "u1", ANSWERS, null));
+        verify(leaderboardService, never()).recordCompletion(any());
+    }
+
+    @Test
+    void concurrentSubmitsCompleteTheAttemptOnce() throws Exception {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5));
+        QuizAttemptService service = service();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> submits = List.of(
+                    executor.submit(() -> submitAfter(start, service)),
+                    executor.submit(() -> submitAfter(start, service)));
+            start.countDown();
+
+            long completed = 0;
+            for (Future<Boolean> submit : submits) {
+                completed += submit.get() ? 1 : 0;
+            }
+            assertEquals(1, completed);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(leaderboardService, times(1)).recordCompletion(any());
+    }
+
+    @Test
+    void retryWithTheSameKeyAfterTheWindowGetsTheOriginal() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5));
+
+        QuizAttempt original = service().submitQuizAttempt("a1", "u1", ANSWERS, "k1");
+        // A fresh window, as if the original had been evicted
+        QuizAttempt retry = service().submitQuizAttempt("a1", "u1", ANSWERS, "k1");
+
+        assertEquals(original.getId(), retry.getId());
+        assertEquals(1, retry.getScore());
+        verify(leaderboardService, times(1)).recordCompletion(any());
+    }
+
+    @Test
+    void retryWithTheSameKeyInsideTheWindowDoesNotWriteAgain() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5));
+        QuizAttemptService service = service();
+
+        service.submitQuizAttempt("a1", "u1", ANSWERS, "k1");
+        service.submitQuizAttempt("a1", "u1", ANSWERS, "k1");
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(QuizAttempt.class));
+    }
+
+    @Test
+    void keyAlreadyUsedForAnotherAttemptIsAConflict() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5));
+        store("a2", "u1", LocalDateTime.now().plusMinutes(5));
+        service().submitQuizAttempt("a1", "u1", ANSWERS, "k1");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service().submitQuizAttempt("a2", "u1", ANSWERS, "k1"));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertTrue(stored.get("a2").isActive());
+    }
+
+    @Test
+    void anotherUsersSubmitMatchesNothing() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5));
+
+        assertThrows(ResponseStatusException.class, () -> service().submitQuizAttempt("a1", "u2", ANSWERS, null));
+        assertTrue(stored.get("a1").isActive());
+    }
+
+    @Test
+    void startCreatesOneAttemptAndResumesIt() {
+        QuizAttempt started = service().startQuizAttempt("u1", "q1", 300);
+        QuizAttempt resumed = service().startQuizAttempt("u1", "q1", 300);
+
+        assertEquals(started.getId(), resumed.getId());
+        assertEquals(1, stored.size());
+        assertTrue(resumed.getTimeRemaining() > 0);
+    }
+
+    @Test
+    void concurrentStartsShareOneAttempt() throws Exception {
+        startRace = new CyclicBarrier(2);
+        QuizAttemptService service = service();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<QuizAttempt> first = executor.submit(() -> service.startQuizAttempt("u1", "q1", 300));
+            Future<QuizAttempt> second = executor.submit(() -> service.startQuizAttempt("u1", "q1", 300));
+
+            assertEquals(first.get().getId(), second.get().getId());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, stored.size());
+        // Both raced the upsert; the loser's duplicate key was retried once
+        assertEquals(3, startCalls.get());
+        verify(attemptExpiryService, times(2)).track(any());
+    }
+
+    @Test
+    void startAfterCompletingTheQuizIsRejected() {
+        store("a1", "u1", LocalDateTime.now().plusMinutes(5)).setActive(false);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service().startQuizAttempt("u1", "q1", 300));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals(1, stored.size());
+    }
+
+    @Test
+    void resumingATimedOutAttemptExpiresIt() {
+        QuizAttempt timedOut = store("a1", "u1", LocalDateTime.now().minusSeconds(1));
+
+        assertThrows(ResponseStatusException.class, () -> service().startQuizAttempt("u1", "q1", 300));
+        verify(attemptExpiryService).expireAttempt(timedOut);
+        verify(attemptExpiryService, never()).track(any());
+    }
+
+    private boolean submitAfter(CountDownLatch start, QuizAttemptService service) throws InterruptedException {
+        start.await();
+        try {
+            service.submitQuizAttempt("a1", "u1", ANSWERS, null);
+            return true;
+        } catch (ResponseStatusException e) {
+            return false;
+        }
+    }
+
+    private QuizAttemptService service() {
+        SubmissionWriteBehind submissionWriteBehind = mock(SubmissionWriteBehind.class);
+        AttemptLifecycle attemptLifecycle = new AttemptLifecycle();
+        ReflectionTestUtils.setField(attemptLifecycle, "attemptExpiryService", attemptExpiryService);
+        ReflectionTestUtils.setField(attemptLifecycle, "submissionWriteBehind", submissionWriteBehind);
+        ReflectionTestUtils.setField(attemptLifecycle, "leaderboardService", leaderboardService);
+        ReflectionTestUtils.setField(attemptLifecycle, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(attemptLifecycle, "quizService", quizService);
+
+        QuizAttemptService service = new QuizAttemptService();
+        ReflectionTestUtils.setField(service, "quizAttemptRepository", quizAttemptRepository);
+        ReflectionTestUtils.setField(service, "quizService", quizService);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "attemptLifecycle", attemptLifecycle);
+        ReflectionTestUtils.setField(service, "idempotencyWindow", new IdempotencyWindow(100, 600, 2_000));
+        return service;
+    }
+
+    private QuizAttempt store(String attemptId, String userId, LocalDateTime expiresAt) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(attemptId);
+        attempt.setUserId(userId);
+        attempt.setQuizId("q1");
+        attempt.setStartedAt(LocalDateTime.now());
+        attempt.setExpiresAt(expiresAt);
+        attempt.setActive(true);
+        stored.put(attemptId, attempt);
+        return attempt;
+    }
+
+    /**
+     * Mongo's upsert: the read and the insert are separate steps, so two
+     * starts can both miss and then race on the one_active_attempt index.
+     * With startRace set, the first two calls wait for each other in between.
+     */
+    private QuizAttempt startOrResume(Query query, UpdateDefinition update) throws Exception {
+        Document conditions = query.getQueryObject();
+        String userId = conditions.getString("userId");
+        String quizId = conditions.getString("quizId");
+        Optional<QuizAttempt> latest = stored.values().stream()
+                .filter(attempt -> attempt.getUserId().equals(userId) && attempt.getQuizId().equals(quizId))
+                .max(Comparator.comparing(QuizAttempt::getStartedAt));
+        if (startCalls.incrementAndGet() <= 2 && startRace != null) {
+            startRace.await(2, TimeUnit.SECONDS);
+        }
+        if (latest.isPresent()) {
+            return latest.get();
+        }
+        synchronized (this) {
+            if (stored.values().stream().anyMatch(attempt -> attempt.isActive()
+                    && attempt.getUserId().equals(userId) && attempt.getQuizId().equals(quizId))) {
+                throw new DuplicateKeyException("one_active_attempt");
+            }
+            Document onInsert = update.getUpdateObject().get("$setOnInsert", Document.class);
+            QuizAttempt attempt = new QuizAttempt();
+            attempt.setId("a" + (stored.size() + 1));
+            attempt.setUserId(userId);
+            attempt.setQuizId(quizId);
+            attempt.setStartedAt((LocalDateTime) onInsert.get("startedAt"));
+            attempt.setTimeLimit(onInsert.getInteger("timeLimit"));
+            attempt.setExpiresAt((LocalDateTime) onInsert.get("expiresAt"));
+            attempt.setActive(onInsert.getBoolean("isActive"));
+            stored.put(attempt.getId(), attempt);
+            return attempt;
+        }
+    }
+
+    // Mongo's atomic findAndModify, reading the conditions from the query the service built
+    private synchronized QuizAttempt completeIfMatching(Query query, UpdateDefinition update) {
+        Document conditions = query.getQueryObject();
+        QuizAttempt attempt = stored.get(conditions.getString("_id"));
+        LocalDateTime now = (LocalDateTime) conditions.get("expiresAt", Document.class).get("$gt");
+        if (attempt == null || !attempt.getUserId().equals(conditions.getString("userId"))
+                || attempt.isActive() != conditions.getBoolean("isActive")
+                || !attempt.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+        Document set = update.getUpdateObject().get("$set", Document.class);
+        String key = set.getString("idempotencyKey");
+        if (key != null && stored.values().stream().anyMatch(other -> other != attempt
+                && other.getUserId().equals(attempt.getUserId()) && key.equals(other.getIdempotencyKey()))) {
+            throw new DuplicateKeyException("user_idempotency_key");
+        }
+        attempt.setActive(set.getBoolean("isActive"));
+        attempt.setScore(set.getInteger("score"));
+        attempt.setCompletedAt((LocalDateTime) set.get("completedAt"));
+        attempt.setIdempotencyKey(key);
+        return attempt;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.model.Quiz;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuizCacheTest {
+
+    private static final LocalDateTime V1 = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime V2 = V1.plusMinutes(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void loadsOnMissAndServesHitsFromMemory() {
+        QuizCache cache = cache(10, 300);
+        CountingLoader loader = new CountingLoader(quiz("q1", V1));
+
+        assertEquals("q1", cache.get("q1", loader).orElseThrow().getId());
+        assertEquals("q1", cache.get("q1", loader).orElseThrow().getId());
+
+        assertEquals(1, loader.calls.get());
+        assertEquals(1.0, meterRegistry.counter("quiz.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("quiz.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void missingQuizIsNotCached() {
+        QuizCache cache = cache(10, 300);
+        CountingLoader loader = new CountingLoader(null);
+
+        assertTrue(cache.get("q1", loader).isEmpty());
+        assertTrue(cache.get("q1", loader).isEmpty());
+
+        assertEquals(2, loader.calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void olderVersionNeverReplacesANewerOne() {
+        QuizCache cache = cache(10, 300);
+        cache.put(quiz("q1", V2));
+        cache.put(quiz("q1", V1));
+
+        CountingLoader loader = new CountingLoader(quiz("q1", V1));
+        assertEquals(V2, cache.get("q1", loader).orElseThrow().getUpdatedAt());
+        assertEquals(0, loader.calls.get());
+    }
+
+    @Test
+    void invalidatedQuizIsNotResurrectedByAnInFlightLoad() {
+        QuizCache cache = cache(10, 300);
+        cache.put(quiz("q1", V1));
+        cache.invalidate("q1");
+
+        // A load that read the document before the update still answers its own caller
+        CountingLoader staleLoader = new CountingLoader(quiz("q1", V1));
+        assertEquals(V1, cache.get("q1", staleLoader).orElseThrow().getUpdatedAt());
+        assertEquals(V1, cache.get("q1", staleLoader).orElseThrow().getUpdatedAt());
+        assertEquals(2, staleLoader.calls.get());
+
+        CountingLoader freshLoader = new CountingLoader(quiz("q1", LocalDateTime.now().plusMinutes(1)));
+        cache.get("q1", freshLoader);
+        cache.get("q1", freshLoader);
+        assertEquals(1, freshLoader.calls.get());
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        QuizCache cache = cache(10, 0);
+        CountingLoader loader = new CountingLoader(quiz("q1", V1));
+
+        cache.get("q1", loader);
+        cache.get("q1", loader);
+
+        assertEquals(2, loader.calls.get());
+        assertTrue(cache.getCachedAnswerKey("q1").isEmpty());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        QuizCache cache = cache(2, 300);
+        cache.put(quiz("q1", V1));
+        cache.put(quiz("q2", V1));
+        cache.getCachedAnswerKey("q1");
+        cache.put(quiz("q3", V1));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getCachedAnswerKey("q1").isPresent());
+        assertTrue(cache.getCachedAnswerKey("q2").isEmpty());
+        assertEquals(1.0, meterRegistry.counter("quiz.cache.evictions", "cause", "size").count());
+    }
+
+    @Test
+    void compilesAnswerKeyAndRendersPlayViewOncePerVersion() {
+        QuizCache cache = cache(10, 300);
+        CountingLoader loader = new CountingLoader(quiz("q1", V1));
+
+        assertEquals(1, cache.getAnswerKey("q1", loader).orElseThrow().getQuestionCount());
+        PlayView view = cache.getPlayView("q1", loader).orElseThrow();
+        assertNotNull(view.getJson());
+        assertSame(view, cache.getPlayView("q1", loader).orElseThrow());
+        assertEquals(1, loader.calls.get());
+    }
+
+    private QuizCache cache(int maxSize, long ttlSeconds) {
+        return new QuizCache(maxSize, ttlSeconds, true, meterRegistry, new ObjectMapper());
+    }
+
+    private static Quiz quiz(String id, LocalDateTime updatedAt) {
+        Quiz.Question question = new Quiz.Question();
+        question.setId("question");
+        question.setText("Question");
+        question.setOptions(List.of("a", "b"));
+        question.setCorrectOptionIndex(1);
+
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setTitle("Quiz " + id);
+        quiz.setQuestions(List.of(question));
+        quiz.setUpdatedAt(updatedAt);
+        return quiz;
+    }
+
+    private static final class CountingLoader implements Function<String, Optional<Quiz>> {
+        final AtomicInteger calls = new AtomicInteger();
+        final Quiz quiz;
+
+        CountingLoader(Quiz quiz) {
+            this.quiz = quiz;
+        }
+
+        @Override
+        public Optional<Quiz> apply(String id) {
+            calls.incrementAndGet();
+            return Optional.ofNullable(quiz);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.QuizSummaryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuizCatalogServiceTest {
+
+    @Test
+    void createdAtCursorRoundTripsToTheMillisecond() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+
+        QuizCatalogService.CursorKey key = QuizCatalogService.decode("createdAt",
+                QuizCatalogService.encode("createdAt", summary("65f0c1a2b3c4d5e6f7a8b9c0", null, createdAt)));
+
+        assertEquals("65f0c1a2b3c4d5e6f7a8b9c0", key.id);
+        assertEquals(createdAt.truncatedTo(ChronoUnit.MILLIS), key.value);
+    }
+
+    @Test
+    void titleCursorKeepsSeparatorsInTheTitle() {
+        String title = "Java: the =good= parts";
+
+        QuizCatalogService.CursorKey key = QuizCatalogService.decode("title",
+                QuizCatalogService.encode("title", summary("id1", title, null)));
+
+        assertEquals("id1", key.id);
+        assertEquals(title, key.value);
+    }
+
+    @Test
+    void missingSortValueDecodesAsNullButEmptyTitleDoesNot() {
+        assertNull(QuizCatalogService.decode("title",
+                QuizCatalogService.encode("title", summary("id1", null, null))).value);
+        assertNull(QuizCatalogService.decode("createdAt",
+                QuizCatalogService.encode("createdAt", summary("id1", null, null))).value);
+        assertEquals("", QuizCatalogService.decode("title",
+                QuizCatalogService.encode("title", summary("id1", "", null))).value);
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = QuizCatalogService.encode("title", summary("id1", "???>>>~~~", null));
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("id1".getBytes(StandardCharsets.UTF_8));
+        String badMillis = Base64.getUrlEncoder().encodeToString("id1:soon".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[]{"not base64!", noSeparator}) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> QuizCatalogService.decode("title", cursor));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        assertThrows(ResponseStatusException.class, () -> QuizCatalogService.decode("createdAt", badMillis));
+    }
+
+    private static QuizSummaryDTO summary(String id, String title, LocalDateTime createdAt) {
+        QuizSummaryDTO summary = new QuizSummaryDTO();
+        summary.setId(id);
+        summary.setTitle(title);
+        summary.setCreatedAt(createdAt);
+        return summary;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.quizsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuizServiceTest {
+
+    @Test
+    void percentileUsesNearestRank() {
+        Map<Integer, Long> distribution = histogram(Map.of(1, 1L, 2, 1L, 3, 1L, 4, 1L, 5, 1L));
+
+        assertEquals(3, QuizService.percentile(distribution, 5, 0.5));
+        assertEquals(5, QuizService.percentile(distribution, 5, 0.9));
+        assertEquals(1, QuizService.percentile(distribution, 5, 0.0));
+        assertEquals(5, QuizService.percentile(distribution, 5, 1.0));
+    }
+
+    @Test
+    void percentileOfEvenCountTakesTheLowerMiddle() {
+        Map<Integer, Long> distribution = histogram(Map.of(1, 1L, 2, 1L, 3, 1L, 4, 1L));
+
+        assertEquals(2, QuizService.percentile(distribution, 4, 0.5));
+    }
+
+    @Test
+    void percentileWeighsBucketsByCount() {
+        assertEquals(0, QuizService.percentile(histogram(Map.of(0, 9L, 10, 1L)), 10, 0.9));
+        assertEquals(10, QuizService.percentile(histogram(Map.of(0, 9L, 10, 1L)), 10, 0.91));
+        assertEquals(10, QuizService.percentile(histogram(Map.of(0, 1L, 10, 9L)), 10, 0.5));
+        assertEquals(7, QuizService.percentile(histogram(Map.of(7, 3L)), 3, 0.9));
+    }
+
+    // Ascending by score, as the stats aggregation returns it
+    private static Map<Integer, Long> histogram(Map<Integer, Long> scoreCounts) {
+        return new TreeMap<>(scoreCounts);
+    }
+}
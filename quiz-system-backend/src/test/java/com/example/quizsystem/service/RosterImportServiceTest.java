@@ -0,0 +1,149 @@
+package com.example.quizsystem.service;
+
+import com.example.quizsystem.dto.ImportReportDTO;
+import com.example.quizsystem.model.User;
+import com.example.quizsystem.security.PasswordHashingExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RosterImportServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final PasswordHashingExecutor passwordHashingExecutor = mock(PasswordHashingExecutor.class);
+    private final RosterImportService service = new RosterImportService();
+
+    @BeforeEach
+    void wireService() {
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "passwordHashingExecutor", passwordHashingExecutor);
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        when(passwordHashingExecutor.getThreads()).thenReturn(4);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void hashesOnFewerLanesThanTheHashingPool() throws IOException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        useEncoder(raw -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return "hash";
+        });
+        givenInserted(20);
+
+        ImportReportDTO report = service.importUsers(csv(20), RosterImportService.Format.CSV);
+
+        assertEquals(20, report.getImported());
+        assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " hashes at once");
+    }
+
+    @Test
+    void busyHashingPoolRejectsRowsNotTheImport() throws IOException {
+        useEncoder(raw -> {
+            if ("pw2".contentEquals(raw)) {
+                throw new RejectedExecutionException("saturated");
+            }
+            return "hash";
+        });
+        givenInserted(2);
+
+        ImportReportDTO report = service.importUsers(csv(3), RosterImportService.Format.CSV);
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertEquals("Password hashing is busy, retry this row", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void failedBatchWriteIsReportedPerRow() throws IOException {
+        useEncoder(raw -> "hash");
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        ImportReportDTO report = service.importUsers(csv(2), RosterImportService.Format.CSV);
+
+        assertEquals(0, report.getImported());
+        assertEquals(2, report.getErrors().size());
+        assertEquals("Import not confirmed, retry this row", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("alice", "alice@example.com", "secret"),
+                RosterImportService.splitCsv("alice,alice@example.com,secret"));
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertEquals(List.of("", "b", "", ""), RosterImportService.splitCsv(",b,,"));
+        assertEquals(List.of(""), RosterImportService.splitCsv(""));
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasAndEscapedQuotes() {
+        assertEquals(List.of("bob", "pa,ss\"word", "x"),
+                RosterImportService.splitCsv("bob,\"pa,ss\"\"word\",x"));
+        assertEquals(List.of("\""), RosterImportService.splitCsv("\"\"\"\""));
+    }
+
+    @Test
+    void leavesWhitespaceToTheCaller() {
+        assertEquals(List.of(" alice ", " pass word"), RosterImportService.splitCsv(" alice , pass word"));
+    }
+
+    private void useEncoder(Function<CharSequence, String> encode) {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(any())).thenAnswer(invocation -> encode.apply(invocation.getArgument(0)));
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+    }
+
+    private void givenInserted(int count) {
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getInsertedCount()).thenReturn(count);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(result);
+    }
+
+    // Header on line 1, so row n is on line n + 1
+    private static ByteArrayInputStream csv(int rows) {
+        StringBuilder csv = new StringBuilder("username,email,password\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("user").append(i).append(",user").append(i).append("@example.com,pw").append(i).append('\n');
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.quizsystem.writebehind;
+
+import com.example.quizsystem.model.QuizAttempt;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionJournalTest {
+
+    private static final LocalDateTime COMPLETED_AT = LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_456_789);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final SubmissionJournal journal = new SubmissionJournal();
+
+    @BeforeEach
+    void wireJournal() {
+        ReflectionTestUtils.setField(journal, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuizAttempt.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void fullyMatchedBatchIsNotReRead() {
+        givenBulkResult(2, 0);
+
+        assertTrue(journal.writeToAttempts(List.of(complete("a1"), complete("a2"))).isEmpty());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(QuizAttempt.class));
+    }
+
+    @Test
+    void completionOfAnAlreadyClosedAttemptIsReturned() {
+        PendingSubmission applied = complete("a1");
+        PendingSubmission lost = complete("a2");
+        givenBulkResult(1, 0);
+        when(mongoTemplate.find(any(Query.class), eq(QuizAttempt.class)))
+                .thenReturn(List.of(stored("a1", COMPLETED_AT), stored("a2", COMPLETED_AT.minusSeconds(5))));
+
+        List<PendingSubmission> refused = journal.writeToAttempts(List.of(applied, lost));
+
+        assertEquals(1, refused.size());
+        assertSame(lost, refused.get(0));
+    }
+
+    @Test
+    void replayedCompletionThatAlreadyLandedIsNotReturned() {
+        givenBulkResult(0, 0);
+        // Mongo only keeps milliseconds of what the first flush wrote
+        when(mongoTemplate.find(any(Query.class), eq(QuizAttempt.class)))
+                .thenReturn(List.of(stored("a1", LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_000_000))));
+
+        assertTrue(journal.writeToAttempts(List.of(complete("a1"))).isEmpty());
+    }
+
+    @Test
+    void completionOfAMissingAttemptIsReturned() {
+        PendingSubmission missing = complete("a1");
+        givenBulkResult(0, 1);
+        when(mongoTemplate.find(any(Query.class), eq(QuizAttempt.class))).thenReturn(List.of());
+
+        PendingSubmission insert = new PendingSubmission(PendingSubmission.Kind.INSERT, attempt("a2"));
+        List<PendingSubmission> refused = journal.writeToAttempts(List.of(insert, missing));
+
+        assertEquals(List.of(missing), refused);
+    }
+
+    private void givenBulkResult(int matched, int upserts) {
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(matched);
+        when(result.getUpserts()).thenReturn(upserts == 0 ? List.of() : List.of(
+                new BulkWriteUpsert(0, new BsonString("a2"))));
+        when(bulk.execute()).thenReturn(result);
+    }
+
+    private static PendingSubmission complete(String attemptId) {
+        return new PendingSubmission(PendingSubmission.Kind.COMPLETE, attempt(attemptId));
+    }
+
+    private static QuizAttempt attempt(String attemptId) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(attemptId);
+        attempt.setUserId("u1");
+        attempt.setScore(2);
+        attempt.setCompletedAt(COMPLETED_AT);
+        return attempt;
+    }
+
+    private static QuizAttempt stored(String attemptId, LocalDateTime completedAt) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(attemptId);
+        attempt.setActive(false);
+        attempt.setCompletedAt(completedAt);
+        return attempt;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.quizsystem.writebehind;
+
+import com.example.quizsystem.event.SubmissionRejectedEvent;
+import com.example.quizsystem.model.QuizAttempt;
+import com.example.quizsystem.service.LeaderboardService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionWriteBehindTest {
+
+    private final SubmissionJournal journal = mock(SubmissionJournal.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SubmissionWriteBehind writeBehind = new SubmissionWriteBehind();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void startWriteBehind() {
+        ReflectionTestUtils.setField(writeBehind, "journal", journal);
+        ReflectionTestUtils.setField(writeBehind, "leaderboardService", leaderboardService);
+        ReflectionTestUtils.setField(writeBehind, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(writeBehind, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 10);
+        ReflectionTestUtils.setField(writeBehind, "lingerMs", 1L);
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 10);
+        ReflectionTestUtils.setField(writeBehind, "offerTimeoutMs", 100L);
+        doAnswer(invocation -> {
+            ((Consumer<PendingSubmission>) invocation.getArgument(1)).accept(invocation.getArgument(0));
+            return null;
+        }).when(journal).append(any(), any());
+        when(journal.writeToAttempts(anyList())).thenReturn(List.of());
+        writeBehind.start();
+    }
+
+    @AfterEach
+    void stopWriteBehind() throws InterruptedException {
+        writeBehind.stop();
+    }
+
+    @Test
+    void failedCheckpointDoesNotStopTheFlusher() {
+        doThrow(new UncheckedIOException(new IOException("disk full")))
+                .doNothing()
+                .when(journal).markFlushed(anyLong());
+
+        submit("a1");
+        verify(journal, timeout(2_000)).markFlushed(anyLong());
+        submit("a2");
+
+        verify(journal, timeout(2_000).times(2)).writeToAttempts(anyList());
+        verify(journal, timeout(2_000).times(2)).markFlushed(anyLong());
+        assertFalse(writeBehind.isPending("a1"));
+        assertFalse(writeBehind.isPending("a2"));
+    }
+
+    @Test
+    void failingRejectionListenerDoesNotStopTheFlusher() {
+        when(journal.writeToAttempts(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("listener failed"))
+                .when(eventPublisher).publishEvent(any(SubmissionRejectedEvent.class));
+
+        submit("a1");
+        verify(eventPublisher, timeout(2_000)).publishEvent(any(SubmissionRejectedEvent.class));
+        submit("a2");
+
+        verify(journal, timeout(2_000).times(2)).writeToAttempts(anyList());
+        verify(leaderboardService, timeout(2_000)).persistCompletions(
+                argThat(attempts -> attempts.size() == 1
+                        && "a2".equals(attempts.get(0).getId())), anyString());
+    }
+
+    @Test
+    void completionThatMatchedNothingIsNotCreditedAndIsRolledBack() {
+        when(journal.writeToAttempts(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        submit("a1");
+
+        verify(eventPublisher, timeout(2_000)).publishEvent(any(SubmissionRejectedEvent.class));
+        verify(leaderboardService).persistCompletions(argThat(List::isEmpty), anyString());
+        verify(leaderboardService).revokeCompletionInMemory(argThat(attempt -> "a1".equals(attempt.getId())));
+        assertFalse(writeBehind.isPending("a1"));
+    }
+
+    @Test
+    void journalFailureFallsBackInsteadOfAcknowledging() {
+        doThrow(new UncheckedIOException(new IOException("disk full"))).when(journal).append(any(), any());
+
+        assertTrue(writeBehind.claim("a1"));
+        assertFalse(writeBehind.enqueue(PendingSubmission.Kind.COMPLETE, attempt("a1")));
+
+        verify(journal, times(0)).writeToAttempts(anyList());
+    }
+
+    private void submit(String attemptId) {
+        assertTrue(writeBehind.claim(attemptId));
+        assertTrue(writeBehind.enqueue(PendingSubmission.Kind.COMPLETE, attempt(attemptId)));
+    }
+
+    private static QuizAttempt attempt(String attemptId) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setId(attemptId);
+        attempt.setUserId("u1");
+        attempt.setQuizId("q1");
+        attempt.setScore(3);
+        attempt.setCompletedAt(LocalDateTime.now());
+        return attempt;
+    }
+}
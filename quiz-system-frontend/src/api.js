@@ -61,7 +61,7 @@ export const loginUser = async (credentials) => {
   }
 };
 // Quizzes
-export const getAllQuizzes = () => api.get('/quizzes');
+export const getAllQuizzes = (cursor) => api.get('/quizzes', { params: cursor ? { cursor } : {} });
 export const getQuizById = async (id) => {
   try {
     const response = await api.get(`/quizzes/${id}`);
@@ -73,6 +73,12 @@ export const getQuizById = async (id) => {
   }
 };
 
+// Answer-free view used while taking a quiz
+export const getPlayableQuiz = async (id) => {
+  const response = await api.get(`/quizzes/${id}/play`);
+  return response.data;
+};
+
 export const getUserAttempt = async (quizId, userId) => {
   try {
     const response = await api.get(`/quiz-attempts/${quizId}/user/${userId}/attempt`);
@@ -131,6 +137,52 @@ export const getRemainingTime = async (attemptId) => {
   }
 };
 
+// Server-sent timer updates; EventSource cannot send the bearer token, so read the stream with fetch
+export const streamRemainingTime = (attemptId, onUpdate) => {
+  const controller = new AbortController();
+  const token = localStorage.getItem('token');
+
+  fetch(`${API_URL}/quiz-attempts/${attemptId}/time/stream`, {
+    headers: {
+      Accept: 'text/event-stream',
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    signal: controller.signal,
+  })
+    .then(async (response) => {
+      if (!response.ok || !response.body) {
+        throw new Error(`Timer stream failed with status ${response.status}`);
+      }
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+        const events = buffer.split('\n\n');
+        buffer = events.pop();
+        events.forEach((event) => {
+          const data = event
+            .split('\n')
+            .filter((line) => line.startsWith('data:'))
+            .map((line) => line.slice(5))
+            .join('');
+          if (data) {
+            onUpdate(JSON.parse(data));
+          }
+        });
+      }
+    })
+    .catch((error) => {
+      if (error.name !== 'AbortError') {
+        console.error('Error streaming remaining time:', error);
+      }
+    });
+
+  return () => controller.abort();
+};
+
 export const updateQuiz = async (quizData) => {
   try {
     const response = await api.put(`/quizzes/${quizData.id}`, quizData);
@@ -144,9 +196,21 @@ export const updateQuiz = async (quizData) => {
 
 export const deleteQuiz = (id) => api.delete(`/quizzes/${id}`);
 
+// Autosaves only the answers that changed; the server coalesces them and writes in the background
+export const saveAttemptAnswers = async (attemptId, changedAnswers) => {
+  try {
+    await api.patch(`/quiz-attempts/${attemptId}/answers`, changedAnswers);
+  } catch (error) {
+    console.error('Error autosaving answers:', error);
+  }
+};
+
 export const submitQuizAttempt = async (attemptId, answers) => {
   try {
-    const response = await api.post(`/quiz-attempts/submit/${attemptId}`, answers);
+    // One key per attempt, so a retried or repeated submit gets the original result back
+    const response = await api.post(`/quiz-attempts/submit/${attemptId}`, answers, {
+      headers: { 'Idempotency-Key': `submit-${attemptId}` },
+    });
     console.log('Submit quiz attempt response:', response.data);
     return response.data;
   } catch (error) {
@@ -156,6 +220,12 @@ export const submitQuizAttempt = async (attemptId, answers) => {
   }
 };
 
+// Correct options per question id; the server only reveals them once the attempt is completed
+export const getAttemptAnswerKey = async (attemptId) => {
+  const response = await api.get(`/quiz-attempts/${attemptId}/answer-key`);
+  return response.data;
+};
+
 export const fetchQuizStats = async (quizId) => {
   try {
     const response = await api.get(`/quizzes/${quizId}/stats`);
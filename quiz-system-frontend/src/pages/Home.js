@@ -28,6 +28,7 @@ import {
 
 function Home() {
   const [quizzes, setQuizzes] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const currentUserId = localStorage.getItem('userId');
 
@@ -35,10 +36,11 @@ function Home() {
     fetchQuizzes();
   }, []);
 
-  const fetchQuizzes = async () => {
+  const fetchQuizzes = async (cursor) => {
     try {
-      const response = await getAllQuizzes();
-      setQuizzes(response.data);
+      const response = await getAllQuizzes(cursor);
+      setQuizzes(previous => (cursor ? [...previous, ...response.data.items] : response.data.items));
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching quizzes:', error);
     }
@@ -185,6 +187,14 @@ function Home() {
           </Grid>
         ))}
       </Grid>
+
+      {nextCursor && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={() => fetchQuizzes(nextCursor)}>
+            Load more
+          </Button>
+        </Box>
+      )}
     </Container>
   );
 }
@@ -4,7 +4,7 @@ import { Container, Typography, List, ListItem, ListItemText, Paper, Box } from
 
 function QuizResults() {
   const location = useLocation();
-  const { quiz, answers, score } = location.state || {};
+  const { quiz, answers, score, correctAnswers } = location.state || {};
 
   if (!quiz || !answers || score === undefined) {
     return <Navigate to="/" replace />;
@@ -30,10 +30,14 @@ function QuizResults() {
                       <Typography component="span" variant="body2" color="textPrimary">
                         Your answer: {question.options[answers[question.id]]}
                       </Typography>
-                      <br />
-                      <Typography component="span" variant="body2" color={answers[question.id] === question.correctOptionIndex ? "primary" : "error"}>
-                        Correct answer: {question.options[question.correctOptionIndex]}
-                      </Typography>
+                      {correctAnswers && correctAnswers[question.id] !== undefined && (
+                        <>
+                          <br />
+                          <Typography component="span" variant="body2" color={answers[question.id] === correctAnswers[question.id] ? "primary" : "error"}>
+                            Correct answer: {question.options[correctAnswers[question.id]]}
+                          </Typography>
+                        </>
+                      )}
                     </>
                   }
                 />
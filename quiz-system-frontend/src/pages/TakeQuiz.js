@@ -1,10 +1,13 @@
 import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { 
-  getQuizById, 
+  getPlayableQuiz, 
   startQuizAttempt,
   getRemainingTime, 
+  streamRemainingTime,
   submitQuizAttempt,
+  saveAttemptAnswers,
+  getAttemptAnswerKey,
   getUserAttempt
 } from '../api';
 import { 
@@ -69,12 +72,21 @@ function TakeQuiz() {
       const result = await submitQuizAttempt(attemptId, answers);
       localStorage.removeItem(`quiz_answers_${id}`);
       localStorage.removeItem(`quiz_attempt_${id}`);
-      
+
+      // The play view carries no answers, so fetch them now that the attempt is completed
+      let correctAnswers = null;
+      try {
+        correctAnswers = await getAttemptAnswerKey(attemptId);
+      } catch (keyError) {
+        console.error('Error loading correct answers:', keyError);
+      }
+
       navigate(`/quiz-results/${id}`, { 
         state: { 
           answers: answers, 
           score: result.score,
-          quiz: quiz 
+          quiz: quiz,
+          correctAnswers: correctAnswers
         } 
       });
     } catch (error) {
@@ -101,7 +113,7 @@ function TakeQuiz() {
       initializingRef.current = true;
 
       try {
-        const quizData = await getQuizById(id);
+        const quizData = await getPlayableQuiz(id);
         setQuiz(quizData);
         
         const existingAttemptId = localStorage.getItem(`quiz_attempt_${id}`);
@@ -132,6 +144,10 @@ function TakeQuiz() {
             quizData.timeLimit * 60
           );
           setAttemptId(attempt.id);
+          if (attempt.answers) {
+            // Answers autosaved on the server survive a lost browser; local ones are newer
+            setAnswers(prev => ({ ...attempt.answers, ...prev }));
+          }
           setTimeLeft(quizData.timeLimit * 60);
           localStorage.setItem(`quiz_attempt_${id}`, attempt.id);
         } catch (error) {
@@ -186,35 +202,18 @@ function TakeQuiz() {
   }, [timeLeft, loading, handleSubmit]);
 
   useEffect(() => {
-    const handleVisibilityChange = async () => {
-      if (document.visibilityState === 'visible' && attemptId) {
-        try {
-          const serverTime = await getRemainingTime(attemptId);
-          if (serverTime <= 0) {
-            setHasAttempted(true);
-            localStorage.removeItem(`quiz_answers_${id}`);
-            localStorage.removeItem(`quiz_attempt_${id}`);
-          } else {
-            setTimeLeft(serverTime);
-          }
-        } catch (error) {
-          console.error('Error syncing time:', error);
-          const errorMessage = error.message || 'An error occurred';
-          if (errorMessage.toLowerCase().includes('already attempted') || 
-              errorMessage.toLowerCase().includes('no longer active')) {
-            setHasAttempted(true);
-            localStorage.removeItem(`quiz_answers_${id}`);
-            localStorage.removeItem(`quiz_attempt_${id}`);
-          }
-        }
-      }
-    };
+    if (!attemptId) return;
 
-    document.addEventListener('visibilitychange', handleVisibilityChange);
-    
-    return () => {
-      document.removeEventListener('visibilitychange', handleVisibilityChange);
-    };
+    // The server pushes the authoritative remaining time; the local interval only animates between updates
+    return streamRemainingTime(attemptId, (update) => {
+      if (update.timeRemaining <= 0) {
+        setHasAttempted(true);
+        localStorage.removeItem(`quiz_answers_${id}`);
+        localStorage.removeItem(`quiz_attempt_${id}`);
+      } else {
+        setTimeLeft(update.timeRemaining);
+      }
+    });
   }, [attemptId, id]);
 
   const formatTime = (seconds) => {
@@ -230,6 +229,9 @@ function TakeQuiz() {
     };
     setAnswers(newAnswers);
     localStorage.setItem(`quiz_answers_${id}`, JSON.stringify(newAnswers));
+    if (attemptId) {
+      saveAttemptAnswers(attemptId, { [questionId]: parseInt(value) });
+    }
   };
 
   if (loading) {